@@ -44,10 +44,56 @@ public class Main {
         String contents = ConfigFileParser.readFile(args[0]);
         ConfigFile configFile = ConfigFileParser.parse(contents);
 
-        BaseSetGenerator baseSet = new BaseSetGenerator(configFile.getNodes(),configFile.getNumRand());
-        Tester tester = new Tester(configFile.getFuncName(), args[1], args[2], baseSet.genBaseSet());
+        // Seed random generation if the config asks for it, so that runs are reproducible
+        BaseSetGenerator baseSet;
+        if (configFile.getSeed() != null) {
+            baseSet = new BaseSetGenerator(configFile.getNodes(), configFile.getNumRand(),
+                    configFile.getSeed());
+        } else {
+            baseSet = new BaseSetGenerator(configFile.getNodes(), configFile.getNumRand());
+        }
+
+        // Check how many exhaustive tests there are before generating any of them, so that
+        // an oversized config is downsampled (or rejected) up front rather than running
+        // out of memory partway through
+        List<TestCase> tests;
+        try {
+            tests = baseSet.genBaseSet(configFile.getExBudget());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigException(e.getMessage());
+        }
+
+        Tester tester = new Tester(configFile.getFuncName(), args[1], args[2], tests);
+
+        // Apply any time limits the config sets, leaving the rest at the Tester's defaults
+        if (configFile.getTestTimeout() != null) {
+            tester.setTestTimeout(configFile.getTestTimeout());
+        }
+        if (configFile.getCpuTimeout() != null) {
+            tester.setTestCpuTimeout(configFile.getCpuTimeout());
+        }
+        if (configFile.getImplTimeout() != null) {
+            tester.setImplTimeout(configFile.getImplTimeout());
+        }
+        if (configFile.getSolutionTimeout() != null) {
+            tester.setSolutionTimeout(configFile.getSolutionTimeout());
+        }
+
+        // Only cache results if the config names a place to keep them
+        tester.setCacheDir(configFile.getCacheDir());
         tester.computeExpectedResults();
         TestResults results = tester.runTests();
+
+        // Favor test cases that run quickly on the reference solution if the config asks
+        // for it, or search for a minimal test set if the config allows time for it;
+        // otherwise, settle for the greedy approximation
+        if (configFile.getWeightByCost()) {
+            return ConciseSetGenerator.weightedSetCover(results,
+                    tester.getExpectedRuntimes());
+        }
+        if (configFile.getSolverBudget() != null) {
+            return ConciseSetGenerator.minimalSetCover(results, configFile.getSolverBudget());
+        }
         return ConciseSetGenerator.setCover(results);
     }
 }
@@ -0,0 +1,117 @@
+package main.rice.basegen;
+
+import main.rice.obj.APyObj;
+import main.rice.test.TestCase;
+import java.util.*;
+
+/**
+ * An iterator over every combination of arguments (selecting one possible argument for
+ * each parameter), which generates each combination on demand rather than holding all of
+ * them in memory. Combinations are produced in a fixed order, like an odometer: the last
+ * parameter changes fastest, and the first parameter changes slowest.
+ */
+public class ArgComboIterator implements Iterator<TestCase> {
+
+    /**
+     * A list where the i-th element contains all possible arguments for the i-th
+     * parameter.
+     */
+    private final List<List<? extends APyObj<?>>> possibleArgs;
+
+    /**
+     * The index, within each parameter's possible arguments, of the argument used for
+     * that parameter in the next combination.
+     */
+    private final int[] digits;
+
+    /**
+     * Whether there are any combinations left.
+     */
+    private boolean hasNext;
+
+    /**
+     * Constructor for an ArgComboIterator.
+     *
+     * @param possibleArgs a list where the i-th element contains all possible arguments
+     *                     for the i-th parameter
+     */
+    public ArgComboIterator(List<List<? extends APyObj<?>>> possibleArgs) {
+        this.possibleArgs = possibleArgs;
+        this.digits = new int[possibleArgs.size()];
+
+        // If any parameter has no possible arguments, there are no combinations at all
+        this.hasNext = true;
+        for (List<? extends APyObj<?>> args : possibleArgs) {
+            if (args.isEmpty()) {
+                this.hasNext = false;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Computes the total number of combinations of the given possible arguments.
+     *
+     * @param possibleArgs a list where the i-th element contains all possible arguments
+     *                     for the i-th parameter
+     * @return the number of combinations, or Long.MAX_VALUE if there are more than that
+     */
+    public static long countCombos(List<List<? extends APyObj<?>>> possibleArgs) {
+        long count = 1;
+        for (List<? extends APyObj<?>> args : possibleArgs) {
+            if (args.isEmpty()) {
+                return 0;
+            }
+            if (count > Long.MAX_VALUE / args.size()) {
+                count = Long.MAX_VALUE;
+            } else {
+                count *= args.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if there are any combinations left; false otherwise.
+     *
+     * @return true if there are any combinations left; false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        return this.hasNext;
+    }
+
+    /**
+     * Returns the next combination of arguments, wrapped in a TestCase.
+     *
+     * @return the next combination of arguments
+     * @throws NoSuchElementException if there are no combinations left
+     */
+    @Override
+    public TestCase next() {
+        if (!this.hasNext) {
+            throw new NoSuchElementException();
+        }
+
+        // Build the current combination
+        List<APyObj<?>> combo = new ArrayList<>(this.digits.length);
+        for (int i = 0; i < this.digits.length; i++) {
+            combo.add(this.possibleArgs.get(i).get(this.digits[i]));
+        }
+
+        // Advance to the next combination, carrying into earlier parameters whenever a
+        // later one wraps around; once the first parameter wraps around, we're done
+        int index = this.digits.length - 1;
+        while (index >= 0) {
+            this.digits[index]++;
+            if (this.digits[index] < this.possibleArgs.get(index).size()) {
+                break;
+            }
+            this.digits[index] = 0;
+            index--;
+        }
+        this.hasNext = (index >= 0);
+
+        return new TestCase(combo);
+    }
+}
@@ -4,6 +4,11 @@ import main.rice.node.APyNode;
 import main.rice.obj.APyObj;
 import main.rice.test.TestCase;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A class that is used to generate a "base" set of test cases, comprised of the union
@@ -23,7 +28,20 @@ public class BaseSetGenerator {
     private final int numRand;
 
     /**
-     * Constructor for a BaseSetGenerator, which initializes the fields.
+     * The master RNG, used to downsample the exhaustive test cases and to split off an
+     * independent stream for each parameter when generating random test cases.
+     */
+    private final SplittableRandom rand;
+
+    /**
+     * The number of random test cases above which a batch of them is generated in
+     * parallel; below this, the overhead of splitting up the work isn't worth it.
+     */
+    private static final int PARALLEL_THRESHOLD = 1_000;
+
+    /**
+     * Constructor for a BaseSetGenerator, which initializes the fields. Random
+     * generation is seeded from system entropy, so it will differ from run to run.
      *
      * @param nodes   the nodes that will be used to perform generation
      * @param numRand the number of random cases to generate
@@ -31,6 +49,22 @@ public class BaseSetGenerator {
     public BaseSetGenerator(List<APyNode<?>> nodes, int numRand) {
         this.nodes = nodes;
         this.numRand = numRand;
+        this.rand = new SplittableRandom();
+    }
+
+    /**
+     * Constructor for a BaseSetGenerator whose random generation is reproducible: two
+     * generators built from the same nodes, number of random cases, and seed produce the
+     * same base set.
+     *
+     * @param nodes   the nodes that will be used to perform generation
+     * @param numRand the number of random cases to generate
+     * @param seed    the seed for random generation
+     */
+    public BaseSetGenerator(List<APyNode<?>> nodes, int numRand, long seed) {
+        this.nodes = nodes;
+        this.numRand = numRand;
+        this.rand = new SplittableRandom(seed);
     }
 
     /**
@@ -42,40 +76,188 @@ public class BaseSetGenerator {
      * @return the base test set (as a List, so that we can use indices in the Tester)
      */
     public List<TestCase> genBaseSet() {
-        Set<TestCase> exTests = this.genExTests();
-        Set<TestCase> randTests = this.genRandTests(exTests);
+        // Collect the exhaustive tests straight from the stream, in order, rather than
+        // building every combination up front
+        List<TestCase> allTests = new ArrayList<>();
+        Set<TestCase> exTests = new HashSet<>();
+        this.streamExTests().forEachOrdered(test -> {
+            allTests.add(test);
+            exTests.add(test);
+        });
 
         // Convert to a list so that we can use indices in testing
-        List<TestCase> allTests = new ArrayList<>();
-        allTests.addAll(exTests);
-        allTests.addAll(randTests);
+        allTests.addAll(this.genRandTests(exTests));
+        return allTests;
+    }
+
+    /**
+     * Generates the base test set, like genBaseSet(), but with at most maxExTests
+     * semi-exhaustive test cases. If the exhaustive domain has more test cases than
+     * that, maxExTests of them are sampled uniformly at random (without generating the
+     * rest) and kept in index order.
+     *
+     * @param maxExTests the maximum number of semi-exhaustive test cases
+     * @return the base test set (as a List, so that we can use indices in the Tester)
+     * @throws IllegalArgumentException if the exhaustive domain is too large to sample
+     *                                  from (see sampleExTests())
+     */
+    public List<TestCase> genBaseSet(long maxExTests) {
+        if (this.countExTests() <= maxExTests) {
+            return this.genBaseSet();
+        }
+
+        List<TestCase> allTests = this.sampleExTests(maxExTests);
+        allTests.addAll(this.genRandTests(new HashSet<>(allTests)));
         return allTests;
     }
 
+    /**
+     * Counts the valid test cases within the exhaustive domains stored within the nodes,
+     * without generating them.
+     *
+     * @return the number of semi-exhaustive test cases, or Long.MAX_VALUE if there are
+     * at least that many
+     */
+    public long countExTests() {
+        long count = 1;
+        for (APyNode<?> node : this.nodes) {
+            long numVals = node.countExVals();
+            if (numVals == 0) {
+                return 0;
+            }
+            count = (count > Long.MAX_VALUE / numVals) ? Long.MAX_VALUE : count * numVals;
+        }
+        return count;
+    }
+
+    /**
+     * Samples the given number of distinct test cases uniformly at random from the
+     * exhaustive domains stored within the nodes, without generating the rest. The
+     * sampled test cases are returned in the order of genExTestSpace().
+     *
+     * @param numTests the number of test cases to sample
+     * @return a list of distinct, valid test cases (all of them, if there are no more
+     * than numTests)
+     * @throws IllegalArgumentException if a single parameter has more than numTests
+     *                                  possible arguments (since they would all have to
+     *                                  be generated), or if there are too many test cases
+     *                                  to index
+     */
+    public List<TestCase> sampleExTests(long numTests) {
+        for (int i = 0; i < this.nodes.size(); i++) {
+            long numVals = this.nodes.get(i).countExVals();
+            if (numVals > numTests) {
+                throw new IllegalArgumentException("Error: exhaustive domain of parameter "
+                        + i + " has " + numVals + " values, more than the budget of "
+                        + numTests);
+            }
+        }
+        ExhaustiveTestSpace space = this.genExTestSpace();
+        if (space.size() <= numTests) {
+            return space.stream(0, space.size()).collect(Collectors.toList());
+        }
+
+        // Floyd's algorithm: picks numTests distinct indices with equal probability,
+        // using only numTests random draws
+        Set<Long> chosen = new HashSet<>();
+        for (long j = space.size() - numTests; j < space.size(); j++) {
+            long index = this.rand.nextLong(j + 1);
+            if (!chosen.add(index)) {
+                chosen.add(j);
+            }
+        }
+
+        List<Long> indices = new ArrayList<>(chosen);
+        Collections.sort(indices);
+        List<TestCase> tests = new ArrayList<>();
+        for (long index : indices) {
+            tests.add(space.get(index));
+        }
+        return tests;
+    }
+
     /**
      * Exbaustively generates a set of all valid test cases within the exhaustive
      * domains stored within the nodes.
      *
-     * @return a set of valid test cases according to the given specifications
+     * @return a set of valid test cases according to the given specifications, which
+     * iterates in the same order as streamExTests()
      */
     public Set<TestCase> genExTests() {
-        // For each parameter, generate the set of all possible arguments
-        List<Set<? extends APyObj<?>>> possibleArgs = new ArrayList<>();
+        Set<TestCase> tests = new LinkedHashSet<>();
+        this.streamExTests().forEachOrdered(tests::add);
+        return tests;
+    }
+
+    /**
+     * Lazily generates all valid test cases within the exhaustive domains stored within
+     * the nodes. Each test case is only created when the stream reaches it, so the
+     * combinations are never all held in memory at once. Test cases appear in a fixed
+     * order, in which the last argument changes fastest.
+     *
+     * @return an ordered stream of distinct, valid test cases according to the given
+     * specifications
+     */
+    public Stream<TestCase> streamExTests() {
+        List<List<? extends APyObj<?>>> possibleArgs = this.genPossibleArgs();
+
+        // Step through all possible combinations of arguments (selecting one valid
+        // argument for each parameter)
+        long numCombos = ArgComboIterator.countCombos(possibleArgs);
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        Iterator<TestCase> combos = new ArgComboIterator(possibleArgs);
+        Spliterator<TestCase> spliterator = (numCombos == Long.MAX_VALUE)
+                ? Spliterators.spliteratorUnknownSize(combos, characteristics)
+                : Spliterators.spliterator(combos, numCombos, characteristics);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Generates an index-addressable view of all valid test cases within the exhaustive
+     * domains stored within the nodes, numbered in the same order as streamExTests().
+     * This allows any test case to be computed directly from its index (e.g. to split
+     * the exhaustive tests into ranges that are generated separately).
+     *
+     * @return the space of valid test cases according to the given specifications
+     * @throws IllegalArgumentException if there are too many test cases to index
+     */
+    public ExhaustiveTestSpace genExTestSpace() {
+        return new ExhaustiveTestSpace(this.genPossibleArgs());
+    }
+
+    /**
+     * Generates, for each parameter, all of its possible arguments within the exhaustive
+     * domains stored within the nodes.
+     *
+     * @return a list where the i-th element contains all possible arguments for the
+     * i-th parameter
+     */
+    private List<List<? extends APyObj<?>>> genPossibleArgs() {
+        List<List<? extends APyObj<?>>> possibleArgs = new ArrayList<>();
         for (APyNode<?> node : this.nodes) {
-            Set<? extends APyObj<?>> args = node.genExVals();
-            possibleArgs.add(args);
+            possibleArgs.add(new ArrayList<>(node.genExVals()));
         }
+        return possibleArgs;
+    }
 
-        // Generate all possible combinations of arguments (selecting one valid argument
-        // for each parameter)
-        List<List<APyObj<?>>> combos = generateArgCombos(possibleArgs, 0);
-        Set<TestCase> tests = new HashSet<>();
-
-        // Encapsulate the results within TestCase objects and return
-        for (List<APyObj<?>> combo : combos) {
-            tests.add(new TestCase(combo));
+    /**
+     * Counts the distinct test cases within the random domains stored within the nodes,
+     * without generating them.
+     *
+     * @return the number of distinct random test cases, or Long.MAX_VALUE if there are
+     * at least that many
+     */
+    public long countRanTests() {
+        long count = 1;
+        for (APyNode<?> node : this.nodes) {
+            long numVals = node.countRanVals();
+            if (numVals == 0) {
+                return 0;
+            }
+            count = (count > Long.MAX_VALUE / numVals) ? Long.MAX_VALUE : count * numVals;
         }
-        return tests;
+        return count;
     }
 
     /**
@@ -84,75 +266,138 @@ public class BaseSetGenerator {
      * of arguments (APyObjs), where the i-th argument is typified by the i-th element in
      * nodes.
      *
+     * Candidates are generated in batches, in parallel when a batch is large, and then
+     * accepted in candidate order until there are numRand of them. Each candidate draws
+     * from its own RNGs, which are split off in order before the batch starts, so the
+     * output for a given seed does not depend on how the batch is scheduled. If the
+     * random domains are small compared to the number of tests needed, most candidates
+     * would be rejected, so the random test cases are instead enumerated and sampled
+     * without replacement (see sampleRanTests()).
+     *
      * @param exTests the set of exhaustive tests that have been generated previously
      * @return a list of valid test cases, according to the given specifications
+     * @throws IllegalArgumentException if the random domains have fewer than numRand
+     *                                  distinct test cases that are not in exTests, since
+     *                                  numRand could never be reached
      */
     public Set<TestCase> genRandTests(Set<TestCase> exTests) {
-        int numAccepted = 0;
-        Set<TestCase> randTests = new HashSet<>();
-
-        // Randomly generate one test at a time until we've generated enough. Need to
-        // continually check the size in case we randomly generate the same test twice
-        while (numAccepted < this.numRand) {
-
-            // Randomly generate each argument
-            List<APyObj<?>> args = new ArrayList<>();
-            for (APyNode<?> node : this.nodes) {
-                APyObj<?> arg = node.genRandVal();
-                args.add(arg);
+        long numPossible = this.countRanTests();
+        if (numPossible < this.numRand) {
+            throw new IllegalArgumentException("Error: random domain has only "
+                    + numPossible + " distinct test cases, fewer than the " + this.numRand
+                    + " random test cases requested");
+        }
+
+        // Unless at least half of all possible random tests are neither exhaustive tests
+        // nor needed, each candidate could be more likely rejected than accepted
+        if (numPossible / 2 < (long) this.numRand + exTests.size()) {
+            return this.sampleRanTests(exTests, this.rand.split());
+        }
+
+        // Give each parameter its own stream, split off the master RNG in parameter
+        // order, so that the i-th argument of every test depends only on the seed and i
+        SplittableRandom[] paramRands = new SplittableRandom[this.nodes.size()];
+        for (int i = 0; i < paramRands.length; i++) {
+            paramRands[i] = this.rand.split();
+        }
+
+        // Generate a batch of candidates at a time until we've accepted enough. Need to
+        // keep going after the first batch in case some candidates are duplicates (of
+        // each other or of exhaustive tests)
+        Set<TestCase> randTests = new LinkedHashSet<>();
+        while (randTests.size() < this.numRand) {
+            int batchSize = this.numRand - randTests.size();
+            SplittableRandom[][] candidateRands = new SplittableRandom[batchSize][];
+            for (int k = 0; k < batchSize; k++) {
+                candidateRands[k] = new SplittableRandom[paramRands.length];
+                for (int i = 0; i < paramRands.length; i++) {
+                    candidateRands[k][i] = paramRands[i].split();
+                }
+            }
+
+            // Since the stream is ordered, distinct() keeps the first of any duplicates
+            // even when it runs in parallel
+            IntStream indices = IntStream.range(0, batchSize);
+            if (batchSize >= PARALLEL_THRESHOLD) {
+                indices = indices.parallel();
             }
+            List<TestCase> candidates = indices
+                    .mapToObj(k -> this.genRandTest(candidateRands[k]))
+                    .filter(test -> !exTests.contains(test))
+                    .distinct()
+                    .toList();
 
-            // Wrap arguments in a TestCase object and add to the base set, making sure
-            // that it isn't a duplicate of an object in the exhaustive set
-            TestCase test = new TestCase(args);
-            if (!exTests.contains(test) && !randTests.contains(test)) {
+            for (TestCase test : candidates) {
+                if (randTests.size() == this.numRand) {
+                    break;
+                }
                 randTests.add(test);
-                numAccepted++;
             }
         }
         return randTests;
     }
 
     /**
-     * Helper function for generateTest; a recursive algorithm for generating all possible
-     * combinations of arguments across multiple parameters. Uses an additional input,
-     * index, to keep track of which arguments have already been combined.
+     * Helper function for genRandTests; enumerates every distinct test case within the
+     * random domains, and picks numRand of those that are not exhaustive tests uniformly
+     * at random, without replacement. Only practical when the random domains are small.
      *
-     * @param possibleArgs a list of sets, where the i-th set contains all possible
-     *                     arguments (as PyObjs) for the i-th parameter
-     * @param index        the next index within possibleArgs for which we need to
-     *                     generate all possible combinations
-     * @return all possible combinations of args, where the i-th element in each sublist
-     * within the returned list is an element of the i-th set in possibleArgs
-     */
-    private static List<List<APyObj<?>>> generateArgCombos(
-            List<Set<? extends APyObj<?>>> possibleArgs, int index) {
-
-        // BASE CASE: index is greater than the last index in possibleArgs ->
-        // no args remain -> return one empty combination
-        if (index == possibleArgs.size()) {
-            List<List<APyObj<?>>> combos = new ArrayList<>();
-            combos.add(new ArrayList<APyObj<?>>());
-            return combos;
-        }
-
-        // RECURSIVE CASE: index is within the bounds of possibleArgs ->
-        // Get all combinations of the later args
-        List<List<APyObj<?>>> laterCombos = generateArgCombos(possibleArgs, index + 1);
-
-        // Get all possible args for the current index
-        Set<? extends APyObj<?>> currArgs = possibleArgs.get(index);
-
-        // For every existing combination, add every possible arg in currArs
-        List<List<APyObj<?>>> allCombos = new ArrayList<>();
-        for (APyObj<?> arg : currArgs) {
-            for (List<APyObj<?>> combo : laterCombos) {
-                // Make sure to clone so as to not mutate the original
-                List<APyObj<?>> comboClone = new ArrayList<>(combo);
-                comboClone.add(0, arg);
-                allCombos.add(comboClone);
-            }
+     * @param exTests the set of exhaustive tests that have been generated previously
+     * @param rand    the RNG from which to draw
+     * @return numRand distinct test cases from the random domains, none of which are in
+     * exTests, in the order of their indices within the random domains
+     * @throws IllegalArgumentException if there are fewer than numRand such test cases
+     */
+    private Set<TestCase> sampleRanTests(Set<TestCase> exTests, SplittableRandom rand) {
+        List<List<? extends APyObj<?>>> possibleArgs = new ArrayList<>();
+        for (APyNode<?> node : this.nodes) {
+            possibleArgs.add(new ArrayList<>(node.genRanVals()));
+        }
+        ExhaustiveTestSpace space = new ExhaustiveTestSpace(possibleArgs);
+
+        // Number the random test cases that aren't exhaustive test cases
+        LongStream indices = LongStream.range(0, space.size());
+        if (space.size() >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        long[] available = indices.filter(index -> !exTests.contains(space.get(index)))
+                .toArray();
+        if (available.length < this.numRand) {
+            throw new IllegalArgumentException("Error: random domain has only "
+                    + available.length + " distinct test cases that are not exhaustive "
+                    + "test cases, fewer than the " + this.numRand
+                    + " random test cases requested");
+        }
+
+        // Shuffle just the first numRand positions (a partial Fisher-Yates shuffle)
+        for (int i = 0; i < this.numRand; i++) {
+            int j = i + rand.nextInt(available.length - i);
+            long swap = available[i];
+            available[i] = available[j];
+            available[j] = swap;
+        }
+        long[] chosen = Arrays.copyOf(available, this.numRand);
+        Arrays.sort(chosen);
+
+        Set<TestCase> randTests = new LinkedHashSet<>();
+        for (long index : chosen) {
+            randTests.add(space.get(index));
+        }
+        return randTests;
+    }
+
+    /**
+     * Helper function for genRandTests; randomly generates a single test case.
+     *
+     * @param rands a list where the i-th element is the RNG from which to draw the i-th
+     *              argument
+     * @return a valid test case, according to the given specifications
+     */
+    private TestCase genRandTest(SplittableRandom[] rands) {
+        List<APyObj<?>> args = new ArrayList<>(rands.length);
+        for (int i = 0; i < rands.length; i++) {
+            args.add(this.nodes.get(i).genRandVal(rands[i]));
         }
-        return allCombos;
+        return new TestCase(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package main.rice.basegen;
+
+import main.rice.obj.APyObj;
+import main.rice.test.TestCase;
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * An index-addressable view of every combination of arguments (selecting one possible
+ * argument for each parameter). Each combination is numbered like a mixed-radix number,
+ * where the i-th digit is the index of the i-th argument within its parameter's possible
+ * arguments, and the last parameter is the least significant; this is the same order in
+ * which ArgComboIterator produces them. Any test case can therefore be computed directly
+ * from its index, and mapped back to its index, without generating the test cases that
+ * come before it.
+ *
+ * An index only names the same test case across runs if each parameter's possible
+ * arguments are listed in the same order every time; BaseSetGenerator lists them in the
+ * canonical order of APyNode.genExVals(), which only depends on the configuration.
+ */
+public class ExhaustiveTestSpace {
+
+    /**
+     * A list where the i-th element contains all possible arguments for the i-th
+     * parameter.
+     */
+    private final List<List<? extends APyObj<?>>> possibleArgs;
+
+    /**
+     * A list where the i-th element maps each possible argument for the i-th parameter
+     * to its index.
+     */
+    private final List<Map<APyObj<?>, Integer>> argIndices;
+
+    /**
+     * The total number of combinations.
+     */
+    private final long size;
+
+    /**
+     * Constructor for an ExhaustiveTestSpace.
+     *
+     * @param possibleArgs a list where the i-th element contains all possible (distinct)
+     *                     arguments for the i-th parameter
+     * @throws IllegalArgumentException if there are too many combinations to number
+     *                                  with a long
+     */
+    public ExhaustiveTestSpace(List<List<? extends APyObj<?>>> possibleArgs) {
+        this.possibleArgs = possibleArgs;
+        this.argIndices = new ArrayList<>();
+        for (List<? extends APyObj<?>> args : possibleArgs) {
+            Map<APyObj<?>, Integer> indices = new HashMap<>();
+            for (int i = 0; i < args.size(); i++) {
+                indices.put(args.get(i), i);
+            }
+            this.argIndices.add(indices);
+        }
+
+        long count = 1;
+        for (List<? extends APyObj<?>> args : possibleArgs) {
+            try {
+                count = Math.multiplyExact(count, args.size());
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(
+                        "Error: exhaustive domain is too large to index");
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * Returns the total number of test cases in this space.
+     *
+     * @return the number of test cases
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Computes the test case with the given index.
+     *
+     * @param index the index of the test case
+     * @return the test case with the given index
+     * @throws IndexOutOfBoundsException if the index is not in [0, size())
+     */
+    public TestCase get(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " out of bounds for size " + this.size);
+        }
+
+        // Peel off the digits from least to most significant (i.e. from the last
+        // parameter to the first)
+        APyObj<?>[] args = new APyObj<?>[this.possibleArgs.size()];
+        long remaining = index;
+        for (int i = args.length - 1; i >= 0; i--) {
+            List<? extends APyObj<?>> paramArgs = this.possibleArgs.get(i);
+            args[i] = paramArgs.get((int) (remaining % paramArgs.size()));
+            remaining /= paramArgs.size();
+        }
+        return new TestCase(new ArrayList<>(Arrays.asList(args)));
+    }
+
+    /**
+     * Computes the index of the given test case.
+     *
+     * @param test the test case
+     * @return the index of the test case, or -1 if it is not in this space
+     */
+    public long indexOf(TestCase test) {
+        List<APyObj<?>> args = test.getArgs();
+        if (args.size() != this.possibleArgs.size()) {
+            return -1;
+        }
+
+        long index = 0;
+        for (int i = 0; i < args.size(); i++) {
+            Integer digit = this.argIndices.get(i).get(args.get(i));
+            if (digit == null) {
+                return -1;
+            }
+            index = index * this.possibleArgs.get(i).size() + digit;
+        }
+        return index;
+    }
+
+    /**
+     * Lazily computes the test cases whose indices are in the given range, in index
+     * order. Since each test case is computed from its index, the stream splits evenly
+     * if it is made parallel.
+     *
+     * @param start the index of the first test case
+     * @param end   one past the index of the last test case
+     * @return a stream of the test cases with indices in [start, end)
+     * @throws IndexOutOfBoundsException if the range is not within [0, size())
+     */
+    public Stream<TestCase> stream(long start, long end) {
+        if (start < 0 || end > this.size || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "Range [" + start + ", " + end + ") out of bounds for size " + this.size);
+        }
+        return LongStream.range(start, end).mapToObj(this::get);
+    }
+}
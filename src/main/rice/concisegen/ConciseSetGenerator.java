@@ -1,18 +1,23 @@
 package main.rice.concisegen;
 
+import main.rice.test.IndexSet;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
  * Stateless class that is a wrapper for a greedy approximation of the set cover
  * algorithm. Running the hitting set algorithm on the results of testing yields a
  * "concise" (approximately minimal) set of test cases that still catches every known
- * (based on the base test set) incorrect implementation.
+ * (based on the base test set) incorrect implementation. When a truly minimal set is
+ * worth the extra time, minimalSetCover searches for one within a time budget; when
+ * test cases differ in how costly they are to run, weightedSetCover favors cheap ones.
  */
 public class ConciseSetGenerator {
 
@@ -27,48 +32,249 @@ public class ConciseSetGenerator {
      * @return M, a set of test cases that is an approximately minimal set covering
      */
     public static Set<TestCase> setCover(TestResults results) {
+        // Shrink the problem first; this doesn't change which test cases are picked (see
+        // ResultReducer)
+        ResultReducer reducer = new ResultReducer(results);
+        TestResults reduced = reducer.getReduced();
+
+        // Every test case costs the same, so the most files per unit of cost is simply
+        // the most files
+        long[] caseCosts = new long[reduced.getCaseToFiles().size()];
+        Arrays.fill(caseCosts, 1);
 
         // Initialize the structure to return
         HashSet<TestCase> hittingSet = new HashSet<>();
+        for (int caseIndex : greedyCover(reduced, reducer.getFileWeights(), caseCosts)) {
+            hittingSet.add(reduced.getTestCase(caseIndex));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * A greedy approximation of the weighted set cover algorithm, where each test case
+     * has a cost (e.g. its runtime, as measured by Tester.getExpectedRuntimes()). Each
+     * round picks the test case that catches the most heretofore-uncovered files per unit
+     * of cost (breaking ties by picking the lowest index), so that the resulting set is
+     * cheap to run rather than merely small. Costs that are not positive are treated as
+     * unknown, and replaced by the average of the known costs.
+     *
+     * @param results   the results of running all tests in B on all files in S
+     * @param caseCosts an array whose i-th element is the cost of the i-th test case
+     * @return M, a set of test cases that approximately minimizes the total cost of a
+     * set covering
+     * @throws IllegalArgumentException if there isn't one cost per test case
+     */
+    public static Set<TestCase> weightedSetCover(TestResults results, long[] caseCosts) {
+        if (caseCosts.length != results.getCaseToFiles().size()) {
+            throw new IllegalArgumentException("Error: expected one cost per test case");
+        }
+
+        // Fill in unknown costs
+        long total = 0;
+        int numKnown = 0;
+        for (long cost : caseCosts) {
+            if (cost > 0) {
+                total += cost;
+                numKnown++;
+            }
+        }
+        long fallback = (numKnown == 0) ? 1 : Math.max(1, total / numKnown);
+        long[] costs = new long[caseCosts.length];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = (caseCosts[i] > 0) ? caseCosts[i] : fallback;
+        }
+
+        // Shrink the problem first; this doesn't change which test cases are picked (see
+        // ResultReducer)
+        ResultReducer reducer = new ResultReducer(results, costs);
+        TestResults reduced = reducer.getReduced();
+        long[] reducedCosts = new long[reduced.getCaseToFiles().size()];
+        for (int i = 0; i < reducedCosts.length; i++) {
+            reducedCosts[i] = costs[reducer.getOriginalIndex(i)];
+        }
+
+        HashSet<TestCase> hittingSet = new HashSet<>();
+        for (int caseIndex : greedyCover(reduced, reducer.getFileWeights(), reducedCosts)) {
+            hittingSet.add(reduced.getTestCase(caseIndex));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * Finds a minimal subset of B (M) such that all of the incorrect implementations
+     * are caught by at least one element in M, using branch-and-bound search (see
+     * ExactCoverSolver). If the search runs out of time, the smallest cover found so far
+     * is returned instead, unless the greedy cover of the same results (see setCover) is
+     * smaller, in which case that is returned; either way, the result is never larger
+     * than the greedy cover.
+     *
+     * @param results          the results of running all tests in B on all files in S
+     * @param timeBudgetMillis the maximum time to spend searching, in milliseconds
+     * @return M, a set of test cases that is a minimal set covering (or the smallest
+     * one found within the time budget)
+     */
+    public static Set<TestCase> minimalSetCover(TestResults results, long timeBudgetMillis) {
+        TestResults reduced = new ResultReducer(results).getReduced();
+        HashSet<TestCase> hittingSet = new HashSet<>();
+        for (int caseIndex : new ExactCoverSolver(reduced).solve(timeBudgetMillis)) {
+            hittingSet.add(reduced.getTestCase(caseIndex));
+        }
+
+        // The solver starts from the greedy cover of its own reduced problem, which may
+        // differ from the greedy cover of the original results, so fall back on the
+        // latter if the search didn't get below it
+        Set<TestCase> greedySet = setCover(results);
+        return (greedySet.size() < hittingSet.size()) ? greedySet : hittingSet;
+    }
+
+    /**
+     * Helper function for setCover, weightedSetCover, and ExactCoverSolver; computes the
+     * greedy cover lazily. Each round, the greedy algorithm picks the test case that
+     * catches the most heretofore-uncovered files per unit of cost (breaking ties by
+     * picking the lowest index). Since the number of new files a test case catches can
+     * only shrink as files are covered, a count computed in an earlier round is an upper
+     * bound on the current count. The test cases are kept in a max-heap by their
+     * (possibly stale) counts per unit of cost; only the one on top is recounted, and if
+     * its count hasn't changed, no other test case can beat it, so it is picked without
+     * recounting the rest. The result is the same as recounting every test case every
+     * round.
+     *
+     * Each file counts as many times as its weight, so that a file standing in for a
+     * group of identical files (see ResultReducer) counts as the whole group. To keep
+     * counting a word at a time, the files are split into bit planes by weight: the k-th
+     * plane holds the files whose weight has bit k set, and the weighted count is the sum
+     * over the planes of the plane's count shifted left by k.
+     *
+     * @param results     the results of running all tests in B on all files in S
+     * @param fileWeights an array whose i-th element is the weight of the i-th file
+     * @param caseCosts   an array whose i-th element is the (positive) cost of the i-th
+     *                    test case
+     * @return the indices of the test cases in the greedy cover, in the order they were
+     * picked
+     */
+    static List<Integer> greedyCover(TestResults results, int[] fileWeights,
+                                     long[] caseCosts) {
+        int numWords = results.getNumWords();
+        int numCases = results.getCaseToFiles().size();
+        long[] uncovered = results.getWrongWords().clone();
+        long[] covered = new long[numWords];
+        long[][] planes = weightPlanes(fileWeights, numWords);
 
-        // We'll be mutating both caseToFiles and wrongSet, so make copies
-        List<Set<Integer>> caseToFiles = new ArrayList<>();
-        for (Set<Integer> set : results.getCaseToFiles()) {
-            caseToFiles.add(new HashSet<>(set));
+        // Each entry is {count, caseIndex}, ordered by count per unit of cost (highest
+        // first) and then by index (lowest first), which matches the greedy algorithm's
+        // tie-break
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, numCases), (a, b) -> {
+            int byRatio = compareProducts(b[0], caseCosts[a[1]], a[0], caseCosts[b[1]]);
+            return (byRatio != 0) ? byRatio : Integer.compare(a[1], b[1]);
+        });
+        for (int caseIndex = 0; caseIndex < numCases; caseIndex++) {
+            int count = countAndNot(results.getCaseWords(caseIndex), covered, planes);
+            if (count > 0) {
+                heap.add(new int[]{count, caseIndex});
+            }
         }
-        Set<Integer> wrongSet = new HashSet<>(results.getWrongSet());
 
         // Select tests until we've "covered" every program that was initially in the
-        // wrong set
-        while (wrongSet.size() > 0) {
-            int maxFilesCaught = 0;
-            int caseOfMaxFiles = -1;
-
-            // Find the test case that covers the most heretofore-uncovered files
-            for (int caseIndex = 0; caseIndex < caseToFiles.size(); caseIndex++) {
-                Set<Integer> filesCaught = caseToFiles.get(caseIndex);
-                if (filesCaught.size() > maxFilesCaught) {
-                    maxFilesCaught = filesCaught.size();
-                    caseOfMaxFiles = caseIndex;
+        // wrong set (or no test catches any of the remaining programs)
+        List<Integer> cover = new ArrayList<>();
+        while (!isEmpty(uncovered) && !heap.isEmpty()) {
+            int[] top = heap.poll();
+            long[] caseWords = results.getCaseWords(top[1]);
+            int count = countAndNot(caseWords, covered, planes);
+            if (count < top[0]) {
+                // Stale; put it back with its current count, unless it's now useless
+                if (count > 0) {
+                    top[0] = count;
+                    heap.add(top);
                 }
+                continue;
             }
 
-            // Remove all covered files from the wrongSet
-            HashSet<Integer> coveredFiles =
-                new HashSet<>(caseToFiles.get(caseOfMaxFiles));
-            wrongSet.removeAll(coveredFiles);
+            // Mark all files caught by the selected test case as covered
+            for (int i = 0; i < numWords; i++) {
+                covered[i] |= caseWords[i];
+                uncovered[i] &= ~caseWords[i];
+            }
+            cover.add(top[1]);
+        }
+        return cover;
+    }
 
-            // Update the caseToFiles mapping such that the set of files caught by each
-            // test no longer includes the newly-covered files
-            for (Set<Integer> filesCaught : caseToFiles) {
-                filesCaught.removeAll(coveredFiles);
+    /**
+     * Helper function for greedyCover; compares two products of non-negative longs
+     * exactly, even if they overflow a long.
+     *
+     * @param a the first factor of the first product
+     * @param b the second factor of the first product
+     * @param c the first factor of the second product
+     * @param d the second factor of the second product
+     * @return a negative number, zero, or a positive number as a * b is less than, equal
+     * to, or greater than c * d
+     */
+    private static int compareProducts(long a, long b, long c, long d) {
+        long high1 = Math.multiplyHigh(a, b);
+        long high2 = Math.multiplyHigh(c, d);
+        return (high1 != high2) ? Long.compare(high1, high2)
+                : Long.compareUnsigned(a * b, c * d);
+    }
+
+    /**
+     * Helper function for greedyCover; splits the files into bit planes by weight.
+     *
+     * @param fileWeights an array whose i-th element is the weight of the i-th file
+     * @param numWords    the number of words in each row of bits
+     * @return an array whose k-th element holds the bits of the files whose weight has
+     * bit k set
+     */
+    private static long[][] weightPlanes(int[] fileWeights, int numWords) {
+        int maxWeight = 0;
+        for (int weight : fileWeights) {
+            maxWeight |= weight;
+        }
+        long[][] planes = new long[32 - Integer.numberOfLeadingZeros(maxWeight)][numWords];
+        for (int file = 0; file < fileWeights.length; file++) {
+            for (int k = 0; k < planes.length; k++) {
+                if ((fileWeights[file] & (1 << k)) != 0) {
+                    IndexSet.setBit(planes[k], file);
+                }
             }
+        }
+        return planes;
+    }
 
-            // Add the selected test case to the hitting set
-            hittingSet.add(results.getTestCase(caseOfMaxFiles));
+    /**
+     * Sums the weights of the files that are set in one row of bits but not in another.
+     *
+     * @param words   the words holding the bits to be counted
+     * @param exclude the words holding the bits not to count
+     * @param planes  the bit planes of the file weights (see weightPlanes)
+     * @return the total weight of the files set in words and not in exclude
+     */
+    private static int countAndNot(long[] words, long[] exclude, long[][] planes) {
+        int count = 0;
+        for (int k = 0; k < planes.length; k++) {
+            long[] plane = planes[k];
+            int planeCount = 0;
+            for (int i = 0; i < words.length; i++) {
+                planeCount += Long.bitCount(words[i] & ~exclude[i] & plane[i]);
+            }
+            count += planeCount << k;
         }
+        return count;
+    }
 
-        // Return the hitting set
-        return hittingSet;
+    /**
+     * Checks whether no bits are set in a row of bits.
+     *
+     * @param words the words holding the bits
+     * @return true if none of the bits are set; false otherwise
+     */
+    static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
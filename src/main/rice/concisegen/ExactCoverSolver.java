@@ -0,0 +1,408 @@
+package main.rice.concisegen;
+
+import main.rice.test.IndexSet;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A branch-and-bound solver for the set cover problem on the results of testing, which
+ * finds a smallest set of test cases that still catches every incorrect implementation
+ * that any test case caught. The search starts from the greedy cover, so it can be cut
+ * off at any time and still return the best cover found so far.
+ *
+ * Before searching, the problem is shrunk by dominance: an implementation can be ignored
+ * if some other implementation is only caught by test cases that also catch it (any
+ * cover that catches the other one catches it too), and a test case can be ignored if
+ * every remaining implementation it catches is also caught by some other test case (that
+ * one can always be used instead).
+ */
+public class ExactCoverSolver {
+
+    /**
+     * The results being covered.
+     */
+    private final TestResults results;
+
+    /**
+     * The indices of the test cases that are kept after reduction.
+     */
+    private final int[] rowIds;
+
+    /**
+     * The i-th element holds the bits of the kept implementations caught by the i-th
+     * kept test case; implementations are numbered by their position among those kept.
+     */
+    private final long[][] rows;
+
+    /**
+     * The j-th element holds the bits of the kept test cases (numbered by their
+     * position among those kept) that catch the j-th kept implementation.
+     */
+    private final long[][] cols;
+
+    /**
+     * The best cover found so far, as positions among the kept test cases; null until
+     * the search starts.
+     */
+    private List<Integer> best;
+
+    /**
+     * The System.nanoTime() after which the search gives up.
+     */
+    private long deadline;
+
+    /**
+     * Whether the search gave up before proving that the best cover is minimal.
+     */
+    private boolean timedOut;
+
+    /**
+     * The number of search nodes visited since the clock was last checked.
+     */
+    private int sinceClockCheck;
+
+    /**
+     * Constructor for an ExactCoverSolver; reduces the problem, but doesn't search.
+     *
+     * @param results the results of testing
+     */
+    public ExactCoverSolver(TestResults results) {
+        this.results = results;
+        int numCases = results.getCaseToFiles().size();
+
+        // Only implementations that some test case catches can be covered
+        long[] files = new long[results.getNumWords()];
+        for (int i = 0; i < numCases; i++) {
+            long[] caseWords = results.getCaseWords(i);
+            for (int w = 0; w < files.length; w++) {
+                files[w] |= caseWords[w];
+            }
+        }
+        long[] wrongWords = results.getWrongWords();
+        for (int w = 0; w < files.length; w++) {
+            files[w] &= wrongWords[w];
+        }
+        boolean[] keptCases = new boolean[numCases];
+        for (int i = 0; i < numCases; i++) {
+            keptCases[i] = true;
+        }
+
+        // Alternate between dropping dominated implementations and dominated test cases
+        // until neither changes anything
+        boolean changed = true;
+        while (changed) {
+            changed = this.dropDominatedFiles(files, keptCases);
+            changed |= this.dropDominatedCases(files, keptCases);
+        }
+
+        // Renumber what's left, and build the rows and columns of the reduced problem
+        List<Integer> fileIds = new ArrayList<>(new IndexSet(files));
+        List<Integer> caseIds = new ArrayList<>();
+        for (int i = 0; i < numCases; i++) {
+            if (keptCases[i]) {
+                caseIds.add(i);
+            }
+        }
+        this.rowIds = caseIds.stream().mapToInt(Integer::intValue).toArray();
+        this.rows = new long[this.rowIds.length][IndexSet.numWords(fileIds.size())];
+        this.cols = new long[fileIds.size()][IndexSet.numWords(this.rowIds.length)];
+        for (int r = 0; r < this.rowIds.length; r++) {
+            long[] caseWords = results.getCaseWords(this.rowIds[r]);
+            for (int c = 0; c < fileIds.size(); c++) {
+                int file = fileIds.get(c);
+                if ((caseWords[file >>> 6] & (1L << file)) != 0) {
+                    IndexSet.setBit(this.rows[r], c);
+                    IndexSet.setBit(this.cols[c], r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper function for the constructor; drops every implementation whose set of
+     * catching test cases is a strict superset of another implementation's (or equal to
+     * that of an implementation with a lower index).
+     *
+     * @param files     the bits of the implementations that are still kept; updated
+     * @param keptCases whether each test case is still kept
+     * @return true if any implementation was dropped; false otherwise
+     */
+    private boolean dropDominatedFiles(long[] files, boolean[] keptCases) {
+        // Transpose the kept part of the matrix, so that each implementation's catching
+        // test cases are a row of bits
+        List<Integer> fileIds = new ArrayList<>(new IndexSet(files));
+        int caseWords = IndexSet.numWords(keptCases.length);
+        long[][] catchers = new long[fileIds.size()][caseWords];
+        for (int i = 0; i < keptCases.length; i++) {
+            if (!keptCases[i]) {
+                continue;
+            }
+            long[] words = this.results.getCaseWords(i);
+            for (int c = 0; c < fileIds.size(); c++) {
+                int file = fileIds.get(c);
+                if ((words[file >>> 6] & (1L << file)) != 0) {
+                    IndexSet.setBit(catchers[c], i);
+                }
+            }
+        }
+
+        boolean changed = false;
+        boolean[] dropped = new boolean[fileIds.size()];
+        for (int f = 0; f < fileIds.size(); f++) {
+            for (int g = 0; g < fileIds.size() && !dropped[f]; g++) {
+                if (g != f && !dropped[g]
+                        && ResultReducer.isSubset(catchers[g], catchers[f])
+                        && (g < f || !Arrays.equals(catchers[g], catchers[f]))) {
+                    dropped[f] = true;
+                    int file = fileIds.get(f);
+                    files[file >>> 6] &= ~(1L << file);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Helper function for the constructor; drops every test case whose set of caught
+     * (kept) implementations is empty or dominated, using ResultReducer's rule with
+     * every test case equally costly: a test case is dropped if what it catches is a
+     * subset of what a test case with a lower index catches.
+     *
+     * @param files     the bits of the implementations that are still kept
+     * @param keptCases whether each test case is still kept; updated
+     * @return true if any test case was dropped; false otherwise
+     */
+    private boolean dropDominatedCases(long[] files, boolean[] keptCases) {
+        // Restrict each kept test case to the kept implementations
+        List<Integer> caseIds = new ArrayList<>();
+        for (int i = 0; i < keptCases.length; i++) {
+            if (keptCases[i]) {
+                caseIds.add(i);
+            }
+        }
+        long[][] caught = new long[caseIds.size()][files.length];
+        for (int a = 0; a < caseIds.size(); a++) {
+            long[] words = this.results.getCaseWords(caseIds.get(a));
+            for (int w = 0; w < files.length; w++) {
+                caught[a][w] = words[w] & files[w];
+            }
+        }
+
+        List<Integer> undominated = ResultReducer.undominatedRows(caught,
+                new long[caseIds.size()]);
+        for (int caseId : caseIds) {
+            keptCases[caseId] = false;
+        }
+        for (int a : undominated) {
+            keptCases[caseIds.get(a)] = true;
+        }
+        return undominated.size() < caseIds.size();
+    }
+
+    /**
+     * Returns the number of test cases left after reduction.
+     *
+     * @return the number of test cases in the reduced problem
+     */
+    public int getNumCases() {
+        return this.rowIds.length;
+    }
+
+    /**
+     * Returns the number of incorrect implementations left after reduction.
+     *
+     * @return the number of implementations in the reduced problem
+     */
+    public int getNumFiles() {
+        return this.cols.length;
+    }
+
+    /**
+     * Searches for a smallest cover, giving up once the time budget runs out.
+     *
+     * @param timeBudgetMillis the maximum time to spend searching, in milliseconds
+     * @return the indices (within results) of the test cases in the best cover found,
+     * in ascending order
+     */
+    public List<Integer> solve(long timeBudgetMillis) {
+        this.deadline = System.nanoTime() + Math.max(0, timeBudgetMillis) * 1_000_000;
+        this.timedOut = false;
+        this.sinceClockCheck = 0;
+
+        // Start from the greedy cover of the reduced problem, so that there's always an
+        // answer to fall back on
+        this.best = this.greedy();
+        long[] uncovered = new long[IndexSet.numWords(this.cols.length)];
+        for (int c = 0; c < this.cols.length; c++) {
+            IndexSet.setBit(uncovered, c);
+        }
+        this.search(uncovered, new ArrayList<>());
+
+        List<Integer> cover = new ArrayList<>();
+        for (int r : this.best) {
+            cover.add(this.rowIds[r]);
+        }
+        Collections.sort(cover);
+        return cover;
+    }
+
+    /**
+     * Returns whether the last call to solve() proved that its cover is minimal.
+     *
+     * @return true if the search finished within its time budget; false otherwise
+     */
+    public boolean isOptimal() {
+        return this.best != null && !this.timedOut;
+    }
+
+    /**
+     * Helper function for solve; computes the greedy cover of the reduced problem, using
+     * the same greedy algorithm as ConciseSetGenerator.setCover().
+     *
+     * @return the positions of the test cases in the greedy cover
+     */
+    private List<Integer> greedy() {
+        // Wrap the reduced problem as results of its own, in which every kept
+        // implementation is wrong and counts once, and every kept test case costs the same
+        int numFiles = this.cols.length;
+        List<TestCase> cases = new ArrayList<>();
+        List<Set<Integer>> timeouts = new ArrayList<>();
+        for (int rowId : this.rowIds) {
+            cases.add(this.results.getTestCase(rowId));
+            timeouts.add(new HashSet<>());
+        }
+        long[] wrongWords = new long[IndexSet.numWords(numFiles)];
+        for (int c = 0; c < numFiles; c++) {
+            IndexSet.setBit(wrongWords, c);
+        }
+        TestResults reduced = new TestResults(cases, this.rows, wrongWords, timeouts);
+
+        int[] fileWeights = new int[numFiles];
+        Arrays.fill(fileWeights, 1);
+        long[] caseCosts = new long[this.rows.length];
+        Arrays.fill(caseCosts, 1);
+        return ConciseSetGenerator.greedyCover(reduced, fileWeights, caseCosts);
+    }
+
+    /**
+     * Helper function for solve; searches every way of extending the given partial
+     * cover, skipping those that can't beat the best cover found so far.
+     *
+     * @param uncovered the bits of the implementations not yet covered
+     * @param chosen    the positions of the test cases in the partial cover
+     */
+    private void search(long[] uncovered, List<Integer> chosen) {
+        if (this.outOfTime()) {
+            return;
+        }
+        if (ConciseSetGenerator.isEmpty(uncovered)) {
+            if (chosen.size() < this.best.size()) {
+                this.best = new ArrayList<>(chosen);
+            }
+            return;
+        }
+        if (chosen.size() + this.lowerBound(uncovered) >= this.best.size()) {
+            return;
+        }
+
+        // Branch on the uncovered implementation caught by the fewest test cases, since
+        // one of them has to be chosen; try the ones that catch the most first
+        int target = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int c : new IndexSet(uncovered)) {
+            int numCatchers = new IndexSet(this.cols[c]).size();
+            if (numCatchers < fewest) {
+                fewest = numCatchers;
+                target = c;
+            }
+        }
+        List<int[]> options = new ArrayList<>();
+        for (int r : new IndexSet(this.cols[target])) {
+            options.add(new int[]{countAnd(this.rows[r], uncovered), r});
+        }
+        options.sort((a, b) -> (a[0] != b[0]) ? Integer.compare(b[0], a[0])
+                : Integer.compare(a[1], b[1]));
+
+        for (int[] option : options) {
+            long[] next = uncovered.clone();
+            for (int w = 0; w < next.length; w++) {
+                next[w] &= ~this.rows[option[1]][w];
+            }
+            chosen.add(option[1]);
+            this.search(next, chosen);
+            chosen.remove(chosen.size() - 1);
+            if (this.timedOut) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper function for search; computes a lower bound on the number of test cases
+     * needed to cover the given implementations. Two bounds are combined: no test case
+     * covers more than the most that any one test case catches, and implementations that
+     * share no catching test case each need a test case of their own.
+     *
+     * @param uncovered the bits of the implementations not yet covered
+     * @return a lower bound on the size of any cover of uncovered
+     */
+    private int lowerBound(long[] uncovered) {
+        int numUncovered = 0;
+        for (long word : uncovered) {
+            numUncovered += Long.bitCount(word);
+        }
+        int maxCount = 0;
+        for (long[] row : this.rows) {
+            maxCount = Math.max(maxCount, countAnd(row, uncovered));
+        }
+        int sizeBound = (numUncovered + maxCount - 1) / maxCount;
+
+        int disjointBound = 0;
+        long[] used = new long[IndexSet.numWords(this.rows.length)];
+        for (int c : new IndexSet(uncovered)) {
+            if (countAnd(this.cols[c], used) == 0) {
+                disjointBound++;
+                for (int w = 0; w < used.length; w++) {
+                    used[w] |= this.cols[c][w];
+                }
+            }
+        }
+        return Math.max(sizeBound, disjointBound);
+    }
+
+    /**
+     * Helper function for search; checks the clock every so often.
+     *
+     * @return true if the time budget has run out; false otherwise
+     */
+    private boolean outOfTime() {
+        if (!this.timedOut && ++this.sinceClockCheck >= 256) {
+            this.sinceClockCheck = 0;
+            this.timedOut = System.nanoTime() > this.deadline;
+        }
+        return this.timedOut;
+    }
+
+    /**
+     * Counts the bits that are set in both of two rows of bits.
+     *
+     * @param words the words holding the first row
+     * @param other the words holding the second row
+     * @return the number of bits set in both rows
+     */
+    private static int countAnd(long[] words, long[] other) {
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & other[i]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,237 @@
+package main.rice.concisegen;
+
+import main.rice.test.IndexSet;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A preprocessing pass that shrinks the results of testing before a set cover is
+ * computed, without changing which test cases the greedy algorithm picks.
+ *
+ * Files that were caught by exactly the same test cases are indistinguishable to any
+ * cover, so each group of them is collapsed into a single file whose weight is the size
+ * of the group (a file is wrong if any file in its group is). Test cases are then
+ * dropped if they catch nothing, or if every file they catch is also caught by a test
+ * case that is no more costly (and, at equal cost, has a lower index), which includes
+ * exact duplicates: the greedy algorithm never picks such a test case, since the other
+ * one always catches at least as many new files per unit of cost and wins ties. Without
+ * costs, every test case costs the same. The test cases that are kept are the same
+ * TestCase objects as in the original results, in the same order, so a cover of the
+ * reduced results is made up of original test cases.
+ */
+public class ResultReducer {
+
+    /**
+     * The reduced results.
+     */
+    private final TestResults reduced;
+
+    /**
+     * The i-th element is the index, within the original results, of the i-th test case
+     * in the reduced results.
+     */
+    private final int[] caseIds;
+
+    /**
+     * The i-th element is the number of original files collapsed into the i-th file in
+     * the reduced results.
+     */
+    private final int[] fileWeights;
+
+    /**
+     * Constructor for a ResultReducer; reduces the given results, treating every test
+     * case as equally costly.
+     *
+     * @param results the results of testing
+     */
+    public ResultReducer(TestResults results) {
+        this(results, new long[results.getCaseToFiles().size()]);
+    }
+
+    /**
+     * Constructor for a ResultReducer; reduces the given results.
+     *
+     * @param results   the results of testing
+     * @param caseCosts an array whose i-th element is the cost of the i-th test case
+     * @throws IllegalArgumentException if there isn't one cost per test case
+     */
+    public ResultReducer(TestResults results, long[] caseCosts) {
+        if (caseCosts.length != results.getCaseToFiles().size()) {
+            throw new IllegalArgumentException("Error: expected one cost per test case");
+        }
+        int numCases = results.getCaseToFiles().size();
+        int caseWords = IndexSet.numWords(numCases);
+
+        // Build the columns (the test cases that caught each file), for every file that
+        // is wrong or that some test case caught
+        long[] files = results.getWrongWords().clone();
+        for (int i = 0; i < numCases; i++) {
+            long[] row = results.getCaseWords(i);
+            for (int w = 0; w < files.length; w++) {
+                files[w] |= row[w];
+            }
+        }
+        int numFiles = 64 * files.length;
+        long[][] cols = new long[numFiles][];
+        for (int file : new IndexSet(files)) {
+            cols[file] = new long[caseWords];
+        }
+        for (int i = 0; i < numCases; i++) {
+            for (int file : new IndexSet(results.getCaseWords(i))) {
+                IndexSet.setBit(cols[file], i);
+            }
+        }
+
+        // Collapse identical columns into one file each, numbered in order of first
+        // appearance
+        Map<IndexSet, Integer> colIds = new HashMap<>();
+        int[] fileToCol = new int[numFiles];
+        List<Integer> weights = new ArrayList<>();
+        List<Integer> wrongCols = new ArrayList<>();
+        Set<Integer> wrongSet = results.getWrongSet();
+        for (int file : new IndexSet(files)) {
+            Integer col = colIds.putIfAbsent(new IndexSet(cols[file]), weights.size());
+            if (col == null) {
+                col = weights.size();
+                weights.add(0);
+            }
+            fileToCol[file] = col;
+            weights.set(col, weights.get(col) + 1);
+            if (wrongSet.contains(file)) {
+                wrongCols.add(col);
+            }
+        }
+        this.fileWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+        int numWords = IndexSet.numWords(this.fileWeights.length);
+
+        // Rebuild each test case's row over the collapsed files, then drop the rows that
+        // are empty or dominated
+        long[][] allRows = new long[numCases][];
+        for (int i = 0; i < numCases; i++) {
+            long[] row = new long[numWords];
+            for (int file : new IndexSet(results.getCaseWords(i))) {
+                IndexSet.setBit(row, fileToCol[file]);
+            }
+            allRows[i] = row;
+        }
+        List<Integer> undominated = undominatedRows(allRows, caseCosts);
+        List<long[]> undominatedRows = new ArrayList<>();
+        for (int caseId : undominated) {
+            undominatedRows.add(allRows[caseId]);
+        }
+        this.caseIds = undominated.stream().mapToInt(Integer::intValue).toArray();
+
+        // Assemble the reduced results, mapping timeouts onto the collapsed files
+        List<TestCase> cases = new ArrayList<>();
+        List<Set<Integer>> timeouts = new ArrayList<>();
+        for (int caseId : this.caseIds) {
+            cases.add(results.getTestCase(caseId));
+            Set<Integer> caseTimeouts = new HashSet<>();
+            for (int file : results.getCaseToTimeouts().get(caseId)) {
+                caseTimeouts.add(fileToCol[file]);
+            }
+            timeouts.add(caseTimeouts);
+        }
+        this.reduced = new TestResults(cases, undominatedRows.toArray(new long[0][]),
+                IndexSet.toWords(wrongCols, numWords), timeouts);
+    }
+
+    /**
+     * Finds the rows that are neither empty nor dominated. A row is dominated if it is a
+     * subset of another row that is cheaper, or that costs the same and has a lower
+     * index; this includes exact duplicates, of which only the cheapest (and then
+     * earliest) is kept. ExactCoverSolver uses the same rule on its own rows.
+     *
+     * @param rows  an array whose i-th element holds the bits of the i-th row
+     * @param costs an array whose i-th element is the cost of the i-th row
+     * @return the indices of the rows that are kept, in ascending order
+     */
+    static List<Integer> undominatedRows(long[][] rows, long[] costs) {
+        // Keep only the cheapest (and then earliest) of any identical rows, dropping rows
+        // that are empty
+        Map<IndexSet, Integer> rowIds = new HashMap<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (!ConciseSetGenerator.isEmpty(rows[i])) {
+                rowIds.merge(new IndexSet(rows[i]), i,
+                        (prev, next) -> (costs[next] < costs[prev]) ? next : prev);
+            }
+        }
+        List<Integer> kept = new ArrayList<>(rowIds.values());
+        kept.sort(null);
+
+        // The remaining rows are distinct, so a row is dominated only by a row with more
+        // bits set, which is no more costly (at equal cost, only an earlier row counts)
+        List<Integer> undominated = new ArrayList<>();
+        int[] counts = new int[kept.size()];
+        for (int a = 0; a < kept.size(); a++) {
+            counts[a] = new IndexSet(rows[kept.get(a)]).size();
+        }
+        for (int a = 0; a < kept.size(); a++) {
+            long costA = costs[kept.get(a)];
+            boolean dominated = false;
+            for (int b = 0; b < kept.size() && !dominated; b++) {
+                long costB = costs[kept.get(b)];
+                dominated = (costB < costA || (costB == costA && b < a))
+                        && counts[b] > counts[a]
+                        && isSubset(rows[kept.get(a)], rows[kept.get(b)]);
+            }
+            if (!dominated) {
+                undominated.add(kept.get(a));
+            }
+        }
+        return undominated;
+    }
+
+    /**
+     * Checks whether one row of bits is a subset of another.
+     *
+     * @param sub the words of the candidate subset
+     * @param sup the words of the candidate superset
+     * @return true if every bit set in sub is also set in sup; false otherwise
+     */
+    static boolean isSubset(long[] sub, long[] sup) {
+        for (int w = 0; w < sub.length; w++) {
+            if ((sub[w] & ~sup[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the reduced results.
+     *
+     * @return the reduced results, whose test cases are a subset of the original ones
+     */
+    public TestResults getReduced() {
+        return this.reduced;
+    }
+
+    /**
+     * Returns the index, within the original results, of a test case in the reduced
+     * results.
+     *
+     * @param index the index of the test case within the reduced results
+     * @return the index of the same test case within the original results
+     */
+    public int getOriginalIndex(int index) {
+        return this.caseIds[index];
+    }
+
+    /**
+     * Returns the weight of each file in the reduced results.
+     *
+     * @return an array whose i-th element is the number of original files collapsed
+     * into the i-th file in the reduced results
+     */
+    public int[] getFileWeights() {
+        return this.fileWeights.clone();
+    }
+}
@@ -2,7 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.AIterablePyObj;
 import main.rice.obj.APyObj;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * An abstract class whose instances represent generators for iterable Python objects
@@ -36,15 +38,47 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
     }
 
     /**
-     * Generates all valid OuterType objects within the exhaustive domain; begins by
-     * generating all valid elements, and then finds all permutations of them of valid
-     * length (as constrained by the exhaustive domain).
+     * Generates all valid OuterType objects within the exhaustive or random domain;
+     * begins by generating all valid elements, and then finds all permutations of them
+     * of valid length (as constrained by the domain).
      *
-     * @return a set of OuterTypes comprising the exhaustive domain
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of OuterTypes comprising the domain
      */
-    public Set<OuterType> genExVals() {
-        Set<InnerType> innerVals = this.leftChild.genExVals();
-        return this.genPerms(innerVals);
+    @Override
+    protected Set<OuterType> computeVals(boolean random) {
+        Set<InnerType> innerVals = this.leftChild.genVals(random);
+        return this.genPerms(innerVals, random);
+    }
+
+    /**
+     * Counts the valid OuterType objects within the exhaustive or random domain: n^k
+     * sequences of each length k in the domain, where n is the number of distinct
+     * elements (in the random domain, those that genRandInnerVal() can produce).
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain, or Long.MAX_VALUE if there are at
+     * least that many
+     */
+    @Override
+    protected long countVals(boolean random) {
+        long numInner = this.countInnerVals(random);
+        BigInteger count = BigInteger.ZERO;
+        for (int length : this.lengthsUpTo(random, numInner == 0 ? 0 : Integer.MAX_VALUE)) {
+            count = count.add(countPow(numInner, length));
+        }
+        return saturate(count);
+    }
+
+    /**
+     * Helper function for countVals; counts the distinct elements that the generated
+     * objects can contain.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of distinct InnerType objects within the domain
+     */
+    protected long countInnerVals(boolean random) {
+        return this.leftChild.countVals(random);
     }
 
     /**
@@ -52,16 +86,17 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
      * randomly generating a valid length (as constrained by the random domain), and then
      * randomly generates valid elements.
      *
+     * @param rand the RNG from which to draw
      * @return a single OuterType object selected from the random domain
      */
-    public OuterType genRandVal() {
+    public OuterType genRandVal(SplittableRandom rand) {
         // Randomly select the size, n
-        int length = this.ranDomainChoice().intValue();
+        int length = this.ranDomainChoice(rand).intValue();
 
         // Randomly select n inner values
         List<InnerType> list = new ArrayList<>();
         for (int idx = 0; idx < length; idx++) {
-            InnerType childVal = this.genRandInnerVal();
+            InnerType childVal = this.genRandInnerVal(rand);
             list.add(childVal);
         }
         return this.genObj(list);
@@ -70,10 +105,11 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
     /**
      * Helper function for generating one random InnerType object.
      *
+     * @param rand the RNG from which to draw
      * @return a randomly-generated object of type InnerType
      */
-    protected InnerType genRandInnerVal() {
-        return this.leftChild.genRandVal();
+    protected InnerType genRandInnerVal(SplittableRandom rand) {
+        return this.leftChild.genRandVal(rand);
     }
 
     /**
@@ -86,89 +122,99 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
     protected abstract OuterType genObj(List<InnerType> innerVals);
 
     /**
-     * Generates all permutations within the exhaustive domain.
+     * Generates all permutations within the exhaustive or random domain. Each sequence
+     * of each length in the domain is generated directly, like an odometer over the indices
+     * of innerVals (in which the last element changes fastest), so no shorter sequences
+     * are built along the way. Since innerVals are distinct, so are the sequences. The
+     * work is split by length and first element; if there are enough sequences, the
+     * pieces are generated in parallel on all cores. Either way, the sequences are in
+     * the same order: by length (ascending), then in odometer order.
      *
      * @param innerVals the set of values that can be contained within the iterable being
      *                  generated
-     * @return all permutations of the elements in innerVals of length up to and including
-     * the max value in this.exDomain
+     * @param random    true to use the lengths in the random domain; false for the
+     *                  exhaustive domain
+     * @return all permutations of the elements in innerVals whose lengths are in the
+     * domain
      */
-    protected Set<OuterType> genPerms(Set<InnerType> innerVals) {
-        Set<OuterType> perms;
-
-        // Try to gauge which approach will be more efficient, and go with that
-        boolean exDomainIsContiguous = this.exDomainIsContiguous();
-        if (exDomainIsContiguous) {
-            // Make a single call that generates everything from the min length to the max length
-            perms = this.genPermsHelper(this.exDomainMax(), this.exDomainMin(), innerVals, true);
-        } else {
-            // Make a bunch of individual calls that only generate the max length
-            perms = new HashSet<>();
-            for (Number length : this.exDomain) {
-                perms.addAll(this.genPermsHelper(length.intValue(), 0, innerVals, false));
+    protected Set<OuterType> genPerms(Set<InnerType> innerVals, boolean random) {
+        List<InnerType> vals = new ArrayList<>(innerVals);
+
+        // Each task is a (length, index of first element) pair
+        BigInteger numPerms = BigInteger.ZERO;
+        List<int[]> tasks = new ArrayList<>();
+        for (int length : this.lengthsUpTo(random, vals.isEmpty() ? 0 : Integer.MAX_VALUE)) {
+            numPerms = numPerms.add(countPow(vals.size(), length));
+            if (length == 0) {
+                tasks.add(new int[]{0, 0});
+            }
+            for (int first = 0; length > 0 && first < vals.size(); first++) {
+                tasks.add(new int[]{length, first});
             }
         }
 
+        // Each task fills its own list, and the lists are concatenated in task order, so
+        // the order of the result is the same whether or not the tasks run in parallel
+        long count = saturate(numPerms);
+        Stream<int[]> taskStream = (count < PARALLEL_THRESHOLD)
+                ? tasks.stream() : tasks.parallelStream();
+        List<List<OuterType>> pieces = taskStream.map(task -> {
+            List<OuterType> piece = new ArrayList<>();
+            this.genPermsHelper(vals, task[0], task[1], piece);
+            return piece;
+        }).toList();
+
+        Set<OuterType> perms = new LinkedHashSet<>(presize(count));
+        for (List<OuterType> piece : pieces) {
+            perms.addAll(piece);
+        }
         return perms;
     }
 
     /**
-     * Helper function for genListPerms; generates all permutations of the specified
-     * innerVals of length up to and including the input size.
+     * Helper function for genPerms; generates all permutations of the specified
+     * innerVals of exactly the given length that start with the given element.
      *
-     * @param currSize  the max size permutation to be generated
-     * @param minSize   the min size permutation to keep
-     * @param innerVals the set of values that can be contained within the iterable being
-     *                  randomly-generated
-     * @param isContig  true if we're generating all sizes from minSize to currSize; false
-     *                  if we're only generating currSize
-     * @return all permutations of innerVals, according to the input specifications
+     * @param innerVals the list of (distinct) values that can be contained within the
+     *                  iterable being generated; must not be empty unless length is 0
+     * @param length    the length of the permutations to be generated
+     * @param first     the index (within innerVals) of the first element of every
+     *                  permutation to be generated; ignored if length is 0
+     * @param perms     the collection to which the generated permutations are added, in
+     *                  order
      */
-    private Set<OuterType> genPermsHelper(int currSize, int minSize,
-                                          Set<InnerType> innerVals, boolean isContig) {
-        // BASE CASE: size 0 -> return a set containing only the empty list
-        if (currSize == 0) {
-            Set<OuterType> perms = new HashSet<>();
-            perms.add(this.genObj(new ArrayList<>()));
-            return perms;
+    private void genPermsHelper(List<InnerType> innerVals, int length, int first,
+                                Collection<OuterType> perms) {
+        // The current permutation, as indices into innerVals and as the values at those
+        // indices; only the positions that change are updated from one permutation to
+        // the next, so the prefix is shared with the previous permutation
+        int[] indices = new int[length];
+        List<InnerType> current = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            current.add(innerVals.get(0));
+        }
+        if (length > 0) {
+            indices[0] = first;
+            current.set(0, innerVals.get(first));
         }
 
-        // RECURSIVE CASE:
-        // Get all permutations that are of length size - 1
-        Set<OuterType> oneShorter = this.genPermsHelper(currSize - 1, minSize, innerVals, isContig);
-
-        // Iterate over each shorter list, adding each possible single element to it
-        Set<OuterType> perms = new HashSet<>();
-        for (OuterType listObj : oneShorter) {
-            // Extract the internal ArrayList representation
-            List<InnerType> list = new ArrayList<>(listObj.getValue());
-            int listSize = list.size();
-
-            // If we're finding a contiguous range, we'll need to selectively keep some of
-            // the smaller permutations.
-            if (isContig && listSize >= minSize) {
-                // Only keep around lists that are within the domain
-                perms.add(listObj);
+        while (true) {
+            // Make sure to clone current so as not to mutate the generated object
+            perms.add(this.genObj(new ArrayList<>(current)));
+
+            // Advance to the next permutation, carrying into earlier positions whenever
+            // a later one wraps around; the first position is fixed, so once the second
+            // position wraps around, we're done
+            int pos = length - 1;
+            while (pos >= 1 && ++indices[pos] == innerVals.size()) {
+                indices[pos] = 0;
+                current.set(pos, innerVals.get(0));
+                pos--;
             }
-
-            // For efficiency, let's avoid generating duplicates by only adding to the largest
-            // elements of shorterPerms
-            if (listSize < currSize - 1) {
-                continue;
-            }
-
-            // Construct all new lists that result from adding val (a possible inner val)
-            // to list
-            for (InnerType val : innerVals) {
-                // Make sure to clone list so as not to mutate the original
-                List<InnerType> listClone = new ArrayList<>(list);
-                listClone.add(val);
-                OuterType obj = this.genObj(listClone);
-                if (obj.getValue().size() == currSize || (isContig && obj.getValue().size() > minSize)) {
-                    perms.add(obj);
-                }
+            if (pos < 1) {
+                return;
             }
+            current.set(pos, innerVals.get(indices[pos]));
         }
-        return perms;
     }
 }
\ No newline at end of file
@@ -1,7 +1,13 @@
 package main.rice.node;
 
 import main.rice.obj.APyObj;
+import java.lang.ref.SoftReference;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * An abstract class whose instances represent templates for creating Python objects. Each
@@ -13,6 +19,26 @@ import java.util.*;
  */
 public abstract class APyNode<ObjType extends APyObj<?>> {
 
+    /**
+     * The memoized results of genExVals() and genRanVals(), keyed by the signature of
+     * the node that generated them. The sets are only softly reachable, so they can be
+     * reclaimed if memory runs low (in which case they're simply regenerated).
+     */
+    private static final Map<String, SoftReference<Set<?>>> VALS_MEMO =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The number of exhaustive values above which compound nodes generate them in
+     * parallel; below this, the overhead of splitting up the work isn't worth it.
+     */
+    protected static final long PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * Incremented whenever the domain of any node changes. A node's count depends on the
+     * domains of its children as well as its own, so this invalidates every cached count.
+     */
+    private static final AtomicLong DOMAIN_VERSION = new AtomicLong();
+
     /**
      * The domain for exhaustive generation.
      */
@@ -24,9 +50,16 @@ public abstract class APyNode<ObjType extends APyObj<?>> {
     protected List<? extends Number> ranDomain;
 
     /**
-     * The RNG used for random generation.
+     * The RNG used by genRandVal() when it isn't given one; seeded from entropy unless
+     * setSeed() is called.
+     */
+    private SplittableRandom rand = new SplittableRandom();
+
+    /**
+     * The result of countRanVals() as {domain version, count}, which is only valid while
+     * the version matches DOMAIN_VERSION; null until it is first computed.
      */
-    protected Random rand = new Random();
+    private volatile long[] ranCount = null;
 
     /**
      * Returns the left child node.
@@ -53,6 +86,7 @@ public abstract class APyNode<ObjType extends APyObj<?>> {
      */
     public void setExDomain(List<? extends Number> domain) {
         this.exDomain = domain;
+        DOMAIN_VERSION.incrementAndGet();
     }
 
     /**
@@ -71,6 +105,7 @@ public abstract class APyNode<ObjType extends APyObj<?>> {
      */
     public void setRanDomain(List<? extends Number> domain) {
         this.ranDomain = domain;
+        DOMAIN_VERSION.incrementAndGet();
     }
 
     /**
@@ -83,80 +118,354 @@ public abstract class APyNode<ObjType extends APyObj<?>> {
     }
 
     /**
-     * Generates all valid PyObjs of type ObjType within the exhaustive domain.
+     * Generates all valid PyObjs of type ObjType within the exhaustive domain. Since the
+     * result only depends on the structure of the tree rooted at this node, it is
+     * memoized by getExSignature(): identical subtrees (e.g. the keys and values of a
+     * dict(list(int):list(int)), or several parameters with the same type and domain)
+     * are only generated once, and share the same set.
+     *
+     * The set iterates in a canonical order that only depends on the signature: a leaf
+     * lists its values in the order in which they first appear in its domain, and a
+     * compound node orders its values by length and then by its children's orders (see
+     * computeVals() of each node). Regenerating the values, whether after the memo has
+     * been cleared or in another run, therefore lists them in the same order.
+     *
+     * @return an unmodifiable set of PyObjs of type ObjType comprising the exhaustive
+     * domain
+     */
+    public Set<ObjType> genExVals() {
+        return this.genVals(false);
+    }
+
+    /**
+     * Generates every distinct PyObj of type ObjType that genRandVal() can produce,
+     * memoized in the same way as genExVals(). Only practical when countRanVals() is
+     * small.
+     *
+     * @return an unmodifiable set of PyObjs of type ObjType comprising the random domain
+     */
+    public Set<ObjType> genRanVals() {
+        return this.genVals(true);
+    }
+
+    /**
+     * Helper function for genExVals() and genRanVals(). Enumerating a random domain is
+     * the same as enumerating an exhaustive domain that happens to hold the same values,
+     * so both share one memo.
+     *
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return an unmodifiable set of PyObjs of type ObjType comprising the domain
+     */
+    protected Set<ObjType> genVals(boolean random) {
+        String signature = this.getSignature(random);
+        SoftReference<Set<?>> ref = VALS_MEMO.get(signature);
+        Set<?> vals = (ref == null) ? null : ref.get();
+        if (vals == null) {
+            // Not computeIfAbsent(), since computing the values of this node recursively
+            // looks up the values of its children
+            vals = Collections.unmodifiableSet(this.computeVals(random));
+            VALS_MEMO.put(signature, new SoftReference<>(vals));
+        }
+
+        // Nodes with the same signature are of the same class, so generate the same type
+        @SuppressWarnings("unchecked")
+        Set<ObjType> typedVals = (Set<ObjType>) vals;
+        return typedVals;
+    }
+
+    /**
+     * Discards every memoized set of values, so that they're regenerated the next time
+     * they're needed.
+     */
+    public static void clearMemo() {
+        VALS_MEMO.clear();
+    }
+
+    /**
+     * Computes all valid PyObjs of type ObjType within the exhaustive or random domain,
+     * without memoization; called by genVals(). Children's values must be looked up with
+     * genVals() using the same domain. The returned set must iterate in an order that
+     * only depends on the domains and on the order of the children's values (e.g. a
+     * LinkedHashSet filled in a fixed order), as described in genExVals().
+     *
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PyObjs of type ObjType comprising the domain
+     */
+    protected abstract Set<ObjType> computeVals(boolean random);
+
+    /**
+     * Counts the valid PyObjs of type ObjType within the exhaustive domain, without
+     * generating them. The count is exact: it equals genExVals().size().
+     *
+     * @return the number of values in the exhaustive domain, or Long.MAX_VALUE if there
+     * are at least that many
+     */
+    public long countExVals() {
+        return this.countVals(false);
+    }
+
+    /**
+     * Counts the distinct PyObjs of type ObjType that genRandVal() can produce, without
+     * generating them. Since compound nodes need the counts of their children on every
+     * call to genRandVal(), the count is cached until the domain of some node changes.
+     *
+     * @return the number of distinct values in the random domain, or Long.MAX_VALUE if
+     * there are at least that many
+     */
+    public long countRanVals() {
+        long version = DOMAIN_VERSION.get();
+        long[] cached = this.ranCount;
+        if (cached == null || cached[0] != version) {
+            cached = new long[]{version, this.countVals(true)};
+            this.ranCount = cached;
+        }
+        return cached[1];
+    }
+
+    /**
+     * Counts the valid PyObjs of type ObjType within the exhaustive or random domain,
+     * without generating them; called by countExVals() and countRanVals(). Children's
+     * values must be counted with countVals() using the same domain.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain, or Long.MAX_VALUE if there are at
+     * least that many
+     */
+    protected abstract long countVals(boolean random);
+
+    /**
+     * Helper function for countVals() of leaf nodes; counts the distinct values that
+     * the numbers in the exhaustive or random domain are converted to.
+     *
+     * @param random  true to count the random domain; false for the exhaustive domain
+     * @param convert the conversion from a number in the domain to a value
+     * @return the number of distinct values
+     */
+    protected long countDistinct(boolean random, Function<Number, ?> convert) {
+        Set<Object> distinct = new HashSet<>();
+        for (Number value : this.getDomain(random)) {
+            distinct.add(convert.apply(value));
+        }
+        return distinct.size();
+    }
+
+    /**
+     * Returns a structural signature of the tree rooted at this node, covering
+     * everything that determines its exhaustive values: the type of each node, its
+     * exhaustive domain, and its children. Two nodes with the same signature generate
+     * the same exhaustive values.
+     *
+     * @return the signature of this node
+     */
+    public String getExSignature() {
+        return this.getSignature(false);
+    }
+
+    /**
+     * Returns a structural signature of the tree rooted at this node, like
+     * getExSignature(), but covering the given domain of each node.
      *
-     * @return a set of PyObjs of type ObjType comprising the exhaustive domain
+     * @param random true to cover the random domains; false for the exhaustive domains
+     * @return the signature of this node
      */
-    public abstract Set<ObjType> genExVals();
+    protected String getSignature(boolean random) {
+        StringBuilder sb = new StringBuilder(this.getClass().getSimpleName());
+        sb.append(this.getDomain(random));
+        if (this.getLeftChild() != null) {
+            sb.append("(").append(this.getLeftChild().getSignature(random));
+            if (this.getRightChild() != null) {
+                sb.append(":").append(this.getRightChild().getSignature(random));
+            }
+            sb.append(")");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Seeds the RNG used by genRandVal(), so that the sequence of values it generates
+     * is reproducible.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.rand = new SplittableRandom(seed);
+    }
 
     /**
-     * Generates a single valid PyObj of type ObjType within the random domain.
+     * Generates a single valid PyObj of type ObjType within the random domain, using
+     * this node's own RNG. Not thread-safe; threads that generate values at the same
+     * time should each use genRandVal(SplittableRandom) with their own RNG.
      *
      * @return a single PyObj of type ObjType selected from the random domain
      */
-    public abstract ObjType genRandVal();
+    public ObjType genRandVal() {
+        return this.genRandVal(this.rand);
+    }
+
+    /**
+     * Generates a single valid PyObj of type ObjType within the random domain, drawing
+     * every random choice (including those of its children) from the given RNG. The
+     * result therefore only depends on the state of the RNG.
+     *
+     * @param rand the RNG from which to draw
+     * @return a single PyObj of type ObjType selected from the random domain
+     */
+    public abstract ObjType genRandVal(SplittableRandom rand);
 
     /**
      * Makes a random choice from the random domain.
      *
+     * @param rand the RNG from which to draw
      * @return a random element from the random domain
      */
-    protected Number ranDomainChoice() {
-        int choice = this.rand.nextInt(this.ranDomain.size());
+    protected Number ranDomainChoice(SplittableRandom rand) {
+        int choice = rand.nextInt(this.ranDomain.size());
         return this.ranDomain.get(choice);
     }
 
     /**
-     * Returns true if the exDomain is contiguous starting from 0; false otherwise.
+     * Makes a random choice of length from the random domain, among only the lengths
+     * that are achievable; each achievable element of the random domain is equally
+     * likely to be chosen.
      *
-     * @return true if the exDomain is contiguous starting from 0; false otherwise.
+     * @param rand      the RNG from which to draw
+     * @param maxLength the maximum achievable length
+     * @return a random element of the random domain within [0, maxLength]
+     * @throws IllegalStateException if no element of the random domain is achievable
      */
-    protected boolean exDomainIsContiguous() {
-        int max = this.exDomainMax();
-        List<Integer> exDomainCopy = new ArrayList<>();
-        for (Number length : this.exDomain) {
-            exDomainCopy.add(length.intValue());
-        }
-        Collections.sort(exDomainCopy);
-        int prev = -1;
-        for (Integer curr : exDomainCopy) {
-            if (prev != -1 && prev != (curr -1)) {
-                return false;
+    protected int ranLengthChoice(SplittableRandom rand, int maxLength) {
+        List<Integer> lengths = new ArrayList<>();
+        for (Number length : this.ranDomain) {
+            if (length.intValue() >= 0 && length.intValue() <= maxLength) {
+                lengths.add(length.intValue());
             }
-            prev = curr;
         }
-        return true;
+        if (lengths.isEmpty()) {
+            throw new IllegalStateException("Error: no length in the random domain "
+                    + this.ranDomain + " is achievable with " + maxLength
+                    + " distinct elements");
+        }
+        return lengths.get(rand.nextInt(lengths.size()));
     }
 
     /**
-     * Finds and returns the minimum value in the exhaustive domain.
+     * Returns the exhaustive or random domain.
      *
-     * @return the minimum value in the exhaustive domain
+     * @param random true for the random domain; false for the exhaustive domain
+     * @return the requested domain
      */
-    protected int exDomainMin() {
-        var minLength = Integer.MAX_VALUE;
-        for (Number length : this.exDomain) {
-            if (length.intValue() < minLength) {
-                // Found new min
-                minLength = length.intValue();
+    protected List<? extends Number> getDomain(boolean random) {
+        return random ? this.ranDomain : this.exDomain;
+    }
+
+    /**
+     * Finds the lengths in the exhaustive or random domain that are achievable given
+     * the number of distinct elements available.
+     *
+     * @param random    true for the random domain; false for the exhaustive domain
+     * @param maxLength the maximum achievable length
+     * @return the lengths in the domain within [0, maxLength], in ascending order and
+     * without duplicates
+     */
+    protected SortedSet<Integer> lengthsUpTo(boolean random, int maxLength) {
+        SortedSet<Integer> lengths = new TreeSet<>();
+        for (Number length : this.getDomain(random)) {
+            if (length.intValue() >= 0 && length.intValue() <= maxLength) {
+                lengths.add(length.intValue());
             }
         }
-        return minLength;
+        return lengths;
     }
 
     /**
-     * Finds and returns the maximum value in the exhaustive domain.
+     * Calls the given action on every combination of the given length of the indices
+     * [0, numVals), in lexicographic order. Each combination is passed as a sorted array
+     * of indices, which is reused (and overwritten) between calls.
      *
-     * @return the maximum value in the exhaustive domain
+     * @param numVals the number of indices to choose from
+     * @param length  the number of indices in each combination
+     * @param action  the action to be performed on each combination
      */
-    protected int exDomainMax() {
-        var maxLength = 0;
-        for (Number length : this.exDomain) {
-            if (length.intValue() > maxLength) {
-                // Found new max
-                maxLength = length.intValue();
+    protected static void forEachCombination(int numVals, int length,
+                                             Consumer<int[]> action) {
+        if (length < 0 || length > numVals) {
+            return;
+        }
+
+        // indices[0] < indices[1] < ... < indices[length - 1] is the current combination
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+
+        while (true) {
+            action.accept(indices);
+
+            // Find the rightmost index that can still be advanced, advance it, and reset
+            // every index after it to follow on consecutively; if there is none, every
+            // combination has been generated
+            int pos = length - 1;
+            while (pos >= 0 && indices[pos] == numVals - length + pos) {
+                pos--;
             }
+            if (pos < 0) {
+                return;
+            }
+            indices[pos]++;
+            for (int i = pos + 1; i < length; i++) {
+                indices[i] = indices[i - 1] + 1;
+            }
+        }
+    }
+
+    /**
+     * Converts a count to a long, saturating at Long.MAX_VALUE.
+     *
+     * @param count the (non-negative) count
+     * @return the count, or Long.MAX_VALUE if it doesn't fit in a long
+     */
+    protected static long saturate(BigInteger count) {
+        return count.bitLength() < Long.SIZE ? count.longValue() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Computes the initial capacity of a hash-based set that will hold the given number
+     * of elements without resizing, given the default load factor of 0.75.
+     *
+     * @param count the expected number of elements
+     * @return the initial capacity
+     */
+    protected static int presize(long count) {
+        return (int) Math.min(count / 0.75 + 1, 1 << 30);
+    }
+
+    /**
+     * Computes base^exponent, saturating at Long.MAX_VALUE.
+     *
+     * @param base     the (non-negative) base
+     * @param exponent the (non-negative) exponent
+     * @return base^exponent, or Long.MAX_VALUE if that doesn't fit in a long
+     */
+    protected static BigInteger countPow(long base, int exponent) {
+        // Stop early, rather than building an enormous number that will only saturate
+        if (base >= 2 && exponent >= Long.SIZE) {
+            return BigInteger.valueOf(Long.MAX_VALUE);
+        }
+        return BigInteger.valueOf(base).pow(exponent);
+    }
+
+    /**
+     * Computes the number of ways to choose k of n distinct elements.
+     *
+     * @param n the (non-negative) number of elements to choose from
+     * @param k the number of elements to choose, in [0, n]
+     * @return n choose k
+     */
+    protected static BigInteger countCombinations(long n, int k) {
+        BigInteger count = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            count = count.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
         }
-        return maxLength;
+        return count;
     }
-}
\ No newline at end of file
+}
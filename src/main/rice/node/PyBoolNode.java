@@ -2,8 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.PyBoolObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * A representation of a leaf node for generating PyBoolObjs. Assumes that the domains
@@ -12,25 +13,40 @@ import java.util.Set;
 public class PyBoolNode extends APyNode<PyBoolObj> {
 
     /**
-     * Generates all valid PyBoolObjs within the exhaustive domain. Interprets 0 (in
-     * the exhaustive domain) as False and 1 as True.
+     * Generates all valid PyBoolObjs within the exhaustive or random domain. Interprets
+     * 0 (in the domain) as False and 1 as True, in the order in which they first
+     * appear in the domain.
      *
-     * @return a set of PyBoolObjs comprising the exhaustive domain
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PyBoolObjs comprising the domain
      */
-    public Set<PyBoolObj> genExVals() {
-        Set<PyBoolObj> vals = new HashSet<>();
-        for (Number value : this.exDomain) {
+    @Override
+    protected Set<PyBoolObj> computeVals(boolean random) {
+        Set<PyBoolObj> vals = new LinkedHashSet<>();
+        for (Number value : this.getDomain(random)) {
             vals.add(new PyBoolObj((value.intValue() > 0)));
         }
         return vals;
     }
 
+    /**
+     * Counts the distinct bools in the exhaustive or random domain.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain
+     */
+    @Override
+    protected long countVals(boolean random) {
+        return this.countDistinct(random, value -> value.intValue() > 0);
+    }
+
     /**
      * Generates a single valid PyBoolObj within the random domain.
      *
+     * @param rand the RNG from which to draw
      * @return a single PyBoolObj selected from the random domain
      */
-    public PyBoolObj genRandVal() {
-        return new PyBoolObj(this.ranDomainChoice().intValue() > 0);
+    public PyBoolObj genRandVal(SplittableRandom rand) {
+        return new PyBoolObj(this.ranDomainChoice(rand).intValue() > 0);
     }
 }
\ No newline at end of file
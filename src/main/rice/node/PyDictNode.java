@@ -2,7 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.APyObj;
 import main.rice.obj.PyDictObj;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * A representation of a node for generating PyDictObjs.
@@ -62,121 +64,176 @@ public class PyDictNode<KeyType extends APyObj<?>, ValType extends APyObj<?>>
     }
 
     /**
-     * Generates all valid PyDictObjs within the exhaustive domain; begins by generating
-     * all valid keys and values, and then generates all permutations of (key, value)
-     * pairs of valid length (as constrained by the exhaustive domain).
+     * Generates all valid PyDictObjs within the exhaustive or random domain; begins by
+     * generating all valid keys and values, and then generates all permutations of
+     * (key, value) pairs of valid length (as constrained by the domain).
      *
-     * @return a set of PyDictObjs comprising the exhaustive domain
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PyDictObjs comprising the domain
      */
-    public Set<PyDictObj<KeyType, ValType>> genExVals() {
+    @Override
+    protected Set<PyDictObj<KeyType, ValType>> computeVals(boolean random) {
         // Generate all valid keys and values
-        Set<KeyType> keyVals = this.leftChild.genExVals();
-        Set<ValType> valVals = this.rightChild.genExVals();
+        Set<KeyType> keyVals = this.leftChild.genVals(random);
+        Set<ValType> valVals = this.rightChild.genVals(random);
 
         // Generate all permutations of valid (key, value) pairs of valid length
-        return this.genDictPerms(keyVals, valVals);
+        return this.genDictPerms(keyVals, valVals, random);
+    }
+
+    /**
+     * Counts the valid PyDictObjs within the exhaustive or random domain: (n choose k) *
+     * m^k dictionaries of each length k in the domain, where n is the number of distinct
+     * keys and m is the number of distinct values.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain, or Long.MAX_VALUE if there are at
+     * least that many
+     */
+    @Override
+    protected long countVals(boolean random) {
+        long numKeys = this.leftChild.countVals(random);
+        long numVals = this.rightChild.countVals(random);
+        int maxLength = (numVals == 0) ? 0 : (int) Math.min(numKeys, Integer.MAX_VALUE);
+
+        BigInteger count = BigInteger.ZERO;
+        for (int length : this.lengthsUpTo(random, maxLength)) {
+            count = count.add(countCombinations(numKeys, length)
+                    .multiply(countPow(numVals, length)));
+        }
+        return saturate(count);
     }
 
     /**
      * Generates a single valid PyDictObj within the random domain; begins by randomly
      * selecting the size, n (number of (key, value) pairs), and then randomly selects
-     * valid (key, value) pairs until there are n unique (key, value) pairs.
+     * valid (key, value) pairs until there are n unique (key, value) pairs. Sizes that
+     * are larger than the number of distinct keys are never selected.
      *
+     * @param rand the RNG from which to draw
      * @return a single PyDictObj selected from the random domain
+     * @throws IllegalStateException if no size in the random domain is achievable
      */
-    public PyDictObj<KeyType, ValType> genRandVal() {
-        // Randomly select the size, n
-        int size = this.ranDomainChoice().intValue();
+    public PyDictObj<KeyType, ValType> genRandVal(SplittableRandom rand) {
+        // Randomly select the size, n, skipping sizes that are larger than the number of
+        // distinct keys (which could never be filled); only the empty dictionary can be
+        // built if there are no values
+        long numKeys = this.leftChild.countRanVals();
+        long numVals = this.rightChild.countRanVals();
+        int maxSize = (numVals == 0) ? 0 : (int) Math.min(numKeys, Integer.MAX_VALUE);
+        int size = this.ranLengthChoice(rand, maxSize);
+
+        // If every distinct key is needed, the keys are already determined, and
+        // collecting the last few keys by random draws could take a long time
+        if (size == numKeys) {
+            Map<KeyType, ValType> map = new HashMap<>();
+            for (KeyType key : this.leftChild.genRanVals()) {
+                map.put(key, this.rightChild.genRandVal(rand));
+            }
+            return new PyDictObj<>(map);
+        }
 
         // Randomly select n (key, value) pairs; make sure to continuously monitor the
         // size, as we could generate the same key twice resulting in the size not
         // increasing from one iteration to the next
         Map<KeyType, ValType> map = new HashMap<>();
         while (map.size() < size) {
-            KeyType key = this.leftChild.genRandVal();
-            ValType val = this.rightChild.genRandVal();
+            KeyType key = this.leftChild.genRandVal(rand);
+            ValType val = this.rightChild.genRandVal(rand);
             map.put(key, val);
         }
         return new PyDictObj<>(map);
     }
 
     /**
-     * Generate all permutations of sets of (key, value) pairs where key is an element of
-     * keyVals and value is an element of valVals, of size up to and including the input
-     * size.
+     * Generates all dictionaries whose keys are elements of keyVals and whose values are
+     * elements of valVals, with lengths in the exhaustive or random domain. Each
+     * dictionary is built exactly once: for each length k, every combination of k
+     * distinct keys is paired with every assignment of values to those keys. If there
+     * are enough dictionaries, the key combinations are handled in parallel on all
+     * cores. Either way, the dictionaries are in the same order: by length (ascending),
+     * then by key combination (in lexicographic order), then by assignment of values.
      *
-     * @param size    the max size permutation to be generated
      * @param keyVals the set of valid keys that can be contained within the dictionary
      *                being generated
      * @param valVals the set of valid values that can be contained within the dictionary
      *                being generated
-     * @return all permutations of valid (key, value) pairs of length up to and including
-     * the input size
+     * @param random  true to use the lengths in the random domain; false for the
+     *                exhaustive domain
+     * @return all dictionaries of valid (key, value) pairs with lengths in the domain
      */
-    private Set<PyDictObj<KeyType, ValType>> genPermsHelper(int size,
-                                                            Set<KeyType> keyVals, Set<ValType> valVals) {
-        // BASE CASE: size 0 -> return a set containing only the empty dictionary
-        if (size == 0) {
-            Set<PyDictObj<KeyType, ValType>> perms = new HashSet<>();
-            perms.add(new PyDictObj<>(new HashMap<>()));
-            return perms;
+    private Set<PyDictObj<KeyType, ValType>> genDictPerms(Set<KeyType> keyVals,
+                                                          Set<ValType> valVals,
+                                                          boolean random) {
+        List<KeyType> keys = new ArrayList<>(keyVals);
+        List<ValType> vals = new ArrayList<>(valVals);
+
+        // Dictionaries can't be longer than the number of distinct keys, and can only be
+        // empty if there are no values
+        SortedSet<Integer> lengths = this.lengthsUpTo(random, vals.isEmpty() ? 0 : keys.size());
+        BigInteger numPerms = BigInteger.ZERO;
+        for (int length : lengths) {
+            numPerms = numPerms.add(countCombinations(keys.size(), length)
+                    .multiply(countPow(vals.size(), length)));
         }
 
-        // RECURSIVE CASE:
-        // Get all permutations that are of length size - 1
-        Set<PyDictObj<KeyType, ValType>> oneShorter =
-                this.genPermsHelper(size - 1, keyVals, valVals);
-
-        // Iterate over each shorter dictionary, adding each possible single (key,
-        // value) pair to it
-        Set<PyDictObj<KeyType, ValType>> perms = new HashSet<>(oneShorter);
-        for (PyDictObj<KeyType, ValType> dictObj : oneShorter) {
-            // Extract the internal HashMap representation
-            Map<KeyType, ValType> dict = dictObj.getValue();
-            if (dict.size() < size - 1) {
-                // For efficiency, let's avoid generating duplicates
-                continue;
-            }
-
-            // Construct all new dictionaries that result from adding (key, value) to dict
-            for (KeyType key : keyVals) {
-                for (ValType val : valVals) {
-                    // Make sure to clone dict so as not to mutate the original
-                    Map<KeyType, ValType> dictClone = new HashMap<>(dict);
-                    dictClone.put(key, val);
-                    perms.add(new PyDictObj<>(dictClone));
-                }
-            }
+        // Each key combination is an independent task (the array is reused by
+        // forEachCombination(), so it has to be copied). Each task fills its own list,
+        // and the lists are concatenated in task order, so the order of the result is the
+        // same whether or not the tasks run in parallel
+        List<int[]> tasks = new ArrayList<>();
+        for (int length : lengths) {
+            forEachCombination(keys.size(), length, keyIndices -> tasks.add(keyIndices.clone()));
+        }
+        long count = saturate(numPerms);
+        Stream<int[]> taskStream = (count < PARALLEL_THRESHOLD)
+                ? tasks.stream() : tasks.parallelStream();
+        List<List<PyDictObj<KeyType, ValType>>> pieces = taskStream.map(keyIndices -> {
+            List<PyDictObj<KeyType, ValType>> piece = new ArrayList<>();
+            this.genValAssignments(keys, keyIndices, vals, piece);
+            return piece;
+        }).toList();
+
+        Set<PyDictObj<KeyType, ValType>> perms = new LinkedHashSet<>(presize(count));
+        for (List<PyDictObj<KeyType, ValType>> piece : pieces) {
+            perms.addAll(piece);
         }
         return perms;
     }
 
     /**
-     * Generates all permutations of sets of (key, value) pairs where key is an element of
-     * keyVals and value is an element of valVals, of size up to and including the max
-     * value in this.exDomain.
+     * Helper function for genDictPerms; generates every dictionary with the given keys,
+     * by assigning every combination of values to them (like an odometer, in which the
+     * value of the last key changes fastest).
      *
-     * @param keyVals the set of valid keys that can be contained within the dictionary
-     *                being generated
-     * @param valVals the set of valid values that can be contained within the dictionary
-     *                being generated
-     * @return all permutations of valid (key, value) pairs of length up to and including
-     * the max value in this.exDomain
+     * @param keys       the list of valid keys
+     * @param keyIndices the indices (within keys) of the keys of every dictionary to be
+     *                   generated
+     * @param vals       the list of valid values; must not be empty
+     * @param perms      the collection to which the generated dictionaries are added, in
+     *                   order
      */
-    private Set<PyDictObj<KeyType, ValType>> genDictPerms(Set<KeyType> keyVals,
-                                                          Set<ValType> valVals) {
-        // Create all dicts up to (and including) the maximum size
-        int maxLength = this.exDomainMax();
-        Set<PyDictObj<KeyType, ValType>> allPerms =
-                this.genPermsHelper(maxLength, keyVals, valVals);
-
-        // Remove dicts of sizes that are not found in this.domain
-        Set<PyDictObj<KeyType, ValType>> finalPerms = new HashSet<>();
-        for (PyDictObj<KeyType, ValType> dict : allPerms) {
-            if (this.exDomain.contains((dict.getValue()).size())) {
-                finalPerms.add(dict);
+    private void genValAssignments(List<KeyType> keys, int[] keyIndices, List<ValType> vals,
+                                   Collection<PyDictObj<KeyType, ValType>> perms) {
+        int length = keyIndices.length;
+        int[] valIndices = new int[length];
+        while (true) {
+            Map<KeyType, ValType> dict = new HashMap<>(length * 2);
+            for (int i = 0; i < length; i++) {
+                dict.put(keys.get(keyIndices[i]), vals.get(valIndices[i]));
+            }
+            perms.add(new PyDictObj<>(dict));
+
+            // Advance to the next assignment, carrying into earlier keys whenever a later
+            // one wraps around; once the first key wraps around, we're done
+            int pos = length - 1;
+            while (pos >= 0 && ++valIndices[pos] == vals.size()) {
+                valIndices[pos] = 0;
+                pos--;
+            }
+            if (pos < 0) {
+                return;
             }
         }
-        return finalPerms;
     }
 }
\ No newline at end of file
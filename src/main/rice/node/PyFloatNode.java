@@ -2,8 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.PyFloatObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * A representation of a leaf node for generating PyFloatObjs.
@@ -11,24 +12,39 @@ import java.util.Set;
 public class PyFloatNode extends APyNode<PyFloatObj> {
 
     /**
-     * Generates all valid PyFloatObjs within the exhaustive domain.
+     * Generates all valid PyFloatObjs within the exhaustive or random domain, in the order
+     * in which they first appear in the domain.
      *
-     * @return a set of PyFloatObjs comprising the exhaustive domain
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PyFloatObjs comprising the domain
      */
-    public Set<PyFloatObj> genExVals() {
-        Set<PyFloatObj> vals = new HashSet<>();
-        for (Number value : this.exDomain) {
+    @Override
+    protected Set<PyFloatObj> computeVals(boolean random) {
+        Set<PyFloatObj> vals = new LinkedHashSet<>();
+        for (Number value : this.getDomain(random)) {
             vals.add(new PyFloatObj(value.doubleValue()));
         }
         return vals;
     }
 
+    /**
+     * Counts the distinct floats in the exhaustive or random domain.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain
+     */
+    @Override
+    protected long countVals(boolean random) {
+        return this.countDistinct(random, Number::doubleValue);
+    }
+
     /**
      * Generates a single valid PyFloatObj within the random domain.
      *
+     * @param rand the RNG from which to draw
      * @return a single PyFloatObj selected from the random domain
      */
-    public PyFloatObj genRandVal() {
-        return new PyFloatObj(this.ranDomainChoice().doubleValue());
+    public PyFloatObj genRandVal(SplittableRandom rand) {
+        return new PyFloatObj(this.ranDomainChoice(rand).doubleValue());
     }
 }
\ No newline at end of file
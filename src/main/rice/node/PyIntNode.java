@@ -2,8 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.PyIntObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * A representation of a leaf node for generating PyIntObjs.
@@ -11,24 +12,39 @@ import java.util.Set;
 public class PyIntNode extends APyNode<PyIntObj> {
 
     /**
-     * Generates all valid PyIntObjs within the exhaustive domain.
+     * Generates all valid PyIntObjs within the exhaustive or random domain, in the order
+     * in which they first appear in the domain.
      *
-     * @return a set of PyIntObjs comprising the exhaustive domain
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PyIntObjs comprising the domain
      */
-    public Set<PyIntObj> genExVals() {
-        Set<PyIntObj> vals = new HashSet<>();
-        for (Number value : this.exDomain) {
+    @Override
+    protected Set<PyIntObj> computeVals(boolean random) {
+        Set<PyIntObj> vals = new LinkedHashSet<>();
+        for (Number value : this.getDomain(random)) {
             vals.add(new PyIntObj(value.intValue()));
         }
         return vals;
     }
 
+    /**
+     * Counts the distinct integers in the exhaustive or random domain.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain
+     */
+    @Override
+    protected long countVals(boolean random) {
+        return this.countDistinct(random, Number::intValue);
+    }
+
     /**
      * Generates a single valid PyIntObj within the random domain.
      *
+     * @param rand the RNG from which to draw
      * @return a single PyIntObj selected from the random domain
      */
-    public PyIntObj genRandVal() {
-        return new PyIntObj(this.ranDomainChoice().intValue());
+    public PyIntObj genRandVal(SplittableRandom rand) {
+        return new PyIntObj(this.ranDomainChoice(rand).intValue());
     }
 }
\ No newline at end of file
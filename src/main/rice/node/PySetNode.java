@@ -2,6 +2,7 @@ package main.rice.node;
 
 import main.rice.obj.APyObj;
 import main.rice.obj.PySetObj;
+import java.math.BigInteger;
 import java.util.*;
 
 /**
@@ -22,23 +23,83 @@ public class PySetNode<InnerType extends APyObj<?>> extends AIterablePyNode<
         this.leftChild = child;
     }
 
+    /**
+     * Generates all valid PySetObjs within the exhaustive or random domain. Overridden
+     * to build each set directly from a combination of distinct elements, so that every
+     * set is generated exactly once, rather than generating every ordering of its
+     * elements (and every sequence with repeats) and then collapsing them into sets.
+     * The sets are ordered by length, then by combination of the child's values (in
+     * the child's order).
+     *
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PySetObjs comprising the domain
+     */
+    @Override
+    protected Set<PySetObj<InnerType>> computeVals(boolean random) {
+        List<InnerType> innerVals = new ArrayList<>(this.leftChild.genVals(random));
+
+        // Sets can't be longer than the number of distinct elements, so skip any
+        // lengths that are impossible
+        Set<PySetObj<InnerType>> sets = new LinkedHashSet<>();
+        for (int length : this.lengthsUpTo(random, innerVals.size())) {
+            forEachCombination(innerVals.size(), length, indices -> {
+                Set<InnerType> set = new HashSet<>(length * 2);
+                for (int index : indices) {
+                    set.add(innerVals.get(index));
+                }
+                sets.add(new PySetObj<>(set));
+            });
+        }
+        return sets;
+    }
+
+    /**
+     * Counts the valid PySetObjs within the exhaustive or random domain: n choose k sets
+     * of each length k in the domain, where n is the number of distinct elements.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of values in the domain, or Long.MAX_VALUE if there are at
+     * least that many
+     */
+    @Override
+    protected long countVals(boolean random) {
+        long numInner = this.countInnerVals(random);
+        int maxLength = (int) Math.min(numInner, Integer.MAX_VALUE);
+        BigInteger count = BigInteger.ZERO;
+        for (int length : this.lengthsUpTo(random, maxLength)) {
+            count = count.add(countCombinations(numInner, length));
+        }
+        return saturate(count);
+    }
+
     /**
      * Generates a single valid PySetObj within the random domain; begins by randomly
-     * generating a valid length (as constrained by the random domain), and then randomly
-     * generates valid elements. Overridden to disallow duplicates.
+     * generating a valid length (as constrained by the random domain, and by the number
+     * of distinct elements), and then randomly generates valid elements. Overridden to
+     * disallow duplicates.
      *
+     * @param rand the RNG from which to draw
      * @return a single PySetObj selected from the random domain
+     * @throws IllegalStateException if no length in the random domain is achievable
      */
-    public PySetObj<InnerType> genRandVal() {
-        // Randomly select the size, n
-        int length = this.ranDomainChoice().intValue();
+    public PySetObj<InnerType> genRandVal(SplittableRandom rand) {
+        // Randomly select the size, n, skipping sizes that are larger than the number of
+        // distinct elements (which could never be filled)
+        long numInner = this.leftChild.countRanVals();
+        int length = this.ranLengthChoice(rand, (int) Math.min(numInner, Integer.MAX_VALUE));
+
+        // If every distinct element is needed, the set is already determined, and
+        // collecting the last few elements by random draws could take a long time
+        if (length == numInner) {
+            return new PySetObj<>(new HashSet<>(this.leftChild.genRanVals()));
+        }
 
         // Randomly select n elements; make sure to continuously monitor the size, as we
         // could generate the same element twice resulting in the size not increasing
         // from one iteration to the next
         Set<InnerType> set = new HashSet<>();
         while (set.size() < length) {
-            InnerType childVal = this.leftChild.genRandVal();
+            InnerType childVal = this.leftChild.genRandVal(rand);
             set.add(childVal);
         }
 
@@ -10,7 +10,8 @@ import java.util.*;
 public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
 
     /**
-     * The domain of characters from which valid strings can be constructed.
+     * The domain of characters from which valid strings can be constructed, without
+     * duplicates and in ascending order (regardless of the order of the given set).
      */
     private final List<PyCharObj> charDomain;
 
@@ -21,20 +22,47 @@ public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
      */
     public PyStringNode(Set<Character> charDomain) {
         this.charDomain = new ArrayList<>();
-        for (Character javaChar: charDomain) {
+        for (Character javaChar: new TreeSet<>(charDomain)) {
             this.charDomain.add(new PyCharObj(javaChar));
         }
     }
 
     /**
-     * Generates all valid PyStringObjs within the exhaustive domain; begins by generating
-     * all valid characters, and then finds all permutations of them of valid length (as
-     * constrained by the exhaustive domain).
+     * Generates all valid PyStringObjs within the exhaustive or random domain; begins by
+     * generating all valid characters, and then finds all permutations of them of valid
+     * length (as constrained by the domain). The strings are ordered by length, then
+     * like numbers whose digits are the characters in ascending order.
      *
-     * @return a set of PyStringObjs comprising the exhaustive domain
+     * @param random true to enumerate the random domain; false for the exhaustive domain
+     * @return a set of PyStringObjs comprising the domain
      */
-    public Set<PyStringObj> genExVals() {
-        return this.genPerms(new HashSet<>(this.charDomain));
+    @Override
+    protected Set<PyStringObj> computeVals(boolean random) {
+        return this.genPerms(new LinkedHashSet<>(this.charDomain), random);
+    }
+
+    /**
+     * Helper function for countVals; counts the distinct characters in the character
+     * domain, which is shared by both domains.
+     *
+     * @param random true to count the random domain; false for the exhaustive domain
+     * @return the number of distinct characters
+     */
+    @Override
+    protected long countInnerVals(boolean random) {
+        return this.charDomain.size();
+    }
+
+    /**
+     * Returns a structural signature of this node. Overridden to include the character
+     * domain, which determines the values along with the exhaustive or random domain.
+     *
+     * @param random true to cover the random domain; false for the exhaustive domain
+     * @return the signature of this node
+     */
+    @Override
+    protected String getSignature(boolean random) {
+        return super.getSignature(random) + this.charDomain;
     }
 
     /**
@@ -50,10 +78,11 @@ public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
     /**
      * Helper function for generating one random PyCharObj object.
      *
+     * @param rand the RNG from which to draw
      * @return a randomly-generated object of type PyCharObj from this.charDomain
      */
-    protected PyCharObj genRandInnerVal() {
-        int choice = this.rand.nextInt(this.charDomain.size());
+    protected PyCharObj genRandInnerVal(SplittableRandom rand) {
+        int choice = rand.nextInt(this.charDomain.size());
         return this.charDomain.get(choice);
     }
 }
\ No newline at end of file
@@ -3,7 +3,10 @@ package main.rice.obj;
 import java.util.Collection;
 
 /**
- * An abstract class whose instances represent specific Python objects.
+ * An abstract class whose instances represent specific Python objects. Python objects
+ * are immutable once constructed, so their hash codes and string representations are
+ * computed at most once and then cached; this keeps hashing deeply nested objects (e.g.
+ * while generating sets of them) from walking the whole structure every time.
  * @param <JavaType> the internal Java representation
  */
 public abstract class APyObj<JavaType> {
@@ -13,6 +16,23 @@ public abstract class APyObj<JavaType> {
      */
     protected JavaType value;
 
+    /**
+     * The cached hash code of this object; 0 if it hasn't been computed yet (or if it
+     * is actually 0, in which case hashIsZero is true).
+     */
+    private int hash;
+
+    /**
+     * Whether the hash code of this object has been computed and is 0.
+     */
+    private boolean hashIsZero;
+
+    /**
+     * The cached string representation of this object; null until it is first
+     * requested.
+     */
+    private String repr;
+
     /**
      * Returns the Java object that is the internal representation of this Python object.
      *
@@ -35,6 +55,12 @@ public abstract class APyObj<JavaType> {
             return false;
         }
 
+        // Objects with different (cached) hash codes can't be equal, which saves
+        // comparing their values element by element
+        if (this.hashCode() != other.hashCode()) {
+            return false;
+        }
+
         // Compare by value
         return this.value.equals(other.getValue());
     }
@@ -47,6 +73,41 @@ public abstract class APyObj<JavaType> {
      */
     @Override
     public int hashCode() {
-        return this.value.hashCode();
+        // Like String, each field is only written once its final value is known, so
+        // racing threads at worst compute the same hash code twice
+        int hash = this.hash;
+        if (hash == 0 && !this.hashIsZero) {
+            hash = this.value.hashCode();
+            if (hash == 0) {
+                this.hashIsZero = true;
+            } else {
+                this.hash = hash;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a string representation of this object that mirrors the Python string
+     * representation; built on the first call and cached.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        String repr = this.repr;
+        if (repr == null) {
+            repr = this.buildRepr();
+            this.repr = repr;
+        }
+        return repr;
     }
+
+    /**
+     * Builds a string representation of this object that mirrors the Python string
+     * representation; called by toString().
+     *
+     * @return a string representation of this object
+     */
+    protected abstract String buildRepr();
 }
\ No newline at end of file
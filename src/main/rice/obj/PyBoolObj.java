@@ -21,7 +21,7 @@ public class PyBoolObj extends APyObj<Boolean> {
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         if (!this.value) {
             return "False";
         }
@@ -23,7 +23,7 @@ public class PyCharObj extends APyObj<Character> {
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         return "'" + this.value.toString() + "'";
     }
 }
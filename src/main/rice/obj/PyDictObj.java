@@ -1,5 +1,6 @@
 package main.rice.obj;
 
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -13,10 +14,10 @@ public class PyDictObj<KeyType extends APyObj, ValType extends APyObj> extends A
     /**
      * Constructor for a PyDictObj; initializes its value to the input.
      *
-     * @param value the value of this PyDictObj
+     * @param value the value of this PyDictObj; must not be modified afterwards
      */
     public PyDictObj(Map<KeyType, ValType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableMap(value);
     }
 
     /**
@@ -26,7 +27,7 @@ public class PyDictObj<KeyType extends APyObj, ValType extends APyObj> extends A
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         StringBuilder repr = new StringBuilder("{");
 
         // Add all of the (key, value) pairs
@@ -21,7 +21,7 @@ public class PyFloatObj extends APyObj<Double> {
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         return this.value.toString();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package main.rice.obj;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -12,10 +13,10 @@ public class PyListObj<InnerType extends APyObj<?>> extends AIterablePyObj<Inner
     /**
      * Constructor for a PyListObj; initializes its value to the input.
      *
-     * @param value the value of this PyListObj
+     * @param value the value of this PyListObj; must not be modified afterwards
      */
     public PyListObj(List<InnerType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableList(value);
     }
 
     /**
@@ -25,7 +26,7 @@ public class PyListObj<InnerType extends APyObj<?>> extends AIterablePyObj<Inner
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         return this.value.toString();
     }
 
@@ -1,5 +1,6 @@
 package main.rice.obj;
 
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -12,10 +13,11 @@ public class PySetObj<InnerType extends APyObj<?>> extends AIterablePyObj<InnerT
     /**
      * Constructor for a PySetObj; initializes its value.
      *
-     * @param value a set whose contents will become the value of this PySetObj
+     * @param value a set whose contents will become the value of this PySetObj; must not
+     *              be modified afterwards
      */
     public PySetObj(Set<InnerType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableSet(value);
     }
 
     /**
@@ -25,7 +27,7 @@ public class PySetObj<InnerType extends APyObj<?>> extends AIterablePyObj<InnerT
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         // Special case for an empty set
         if (this.value.size() == 0) {
             return "set()";
@@ -1,6 +1,7 @@
 package main.rice.obj;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,19 +16,20 @@ public class PyStringObj extends AIterablePyObj<PyCharObj> {
      * @param value the sequence of characters representing the value of this PySetObj
      */
     public PyStringObj(String value) {
-        this.value = new ArrayList<>();
+        List<PyCharObj> chars = new ArrayList<>(value.length());
         for (int idx = 0; idx < value.length(); idx++) {
-            this.value.add(new PyCharObj(value.charAt(idx)));
+            chars.add(new PyCharObj(value.charAt(idx)));
         }
+        this.value = Collections.unmodifiableList(chars);
     }
 
     /**
      * Constructor for a PySetObj; initializes its value to the input.
      *
-     * @param value the value of this PySetObj
+     * @param value the value of this PySetObj; must not be modified afterwards
      */
     public PyStringObj(List<PyCharObj> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableList(value);
     }
 
     /**
@@ -38,7 +40,7 @@ public class PyStringObj extends AIterablePyObj<PyCharObj> {
      * @return a string representation of this object
      */
     @Override
-    public String toString() {
+    protected String buildRepr() {
         // Concatenate all characters within this.value to get a single string
         StringBuilder sb = new StringBuilder();
         for (PyCharObj character : this.value) {
@@ -20,9 +20,57 @@ public class ConfigFile {
      * The number of random test cases to be generated.
      */
     private int numRand;
+    /**
+     * The maximum number of semi-exhaustive test cases to be generated; Long.MAX_VALUE
+     * if there is no limit.
+     */
+    private long exBudget = Long.MAX_VALUE;
+    /**
+     * The seed for random test generation; null if random generation should be seeded
+     * from system entropy.
+     */
+    private Long seed = null;
+    /**
+     * The time budget, in milliseconds, for searching for a minimal concise test set;
+     * null if the greedy approximation should be used instead.
+     */
+    private Long solverBudget = null;
+    /**
+     * Whether the concise test set should favor test cases that are cheap to run, as
+     * measured by their runtime on the reference solution.
+     */
+    private boolean weightByCost = false;
+    /**
+     * The wall-clock limit, in milliseconds, on each test case run on a buggy
+     * implementation (0 for no limit); null to use the Tester's default.
+     */
+    private Long testTimeout = null;
+    /**
+     * The CPU limit, in milliseconds, on each test case run on a buggy implementation (0
+     * for no limit); null to use the Tester's default.
+     */
+    private Long cpuTimeout = null;
+    /**
+     * The wall-clock limit, in milliseconds, on all of the test cases run on a single
+     * buggy implementation (0 for no limit); null to use the Tester's default.
+     */
+    private Long implTimeout = null;
+    /**
+     * The wall-clock limit, in milliseconds, on each test case run on the reference
+     * solution (0 for no limit); null to use the Tester's default.
+     */
+    private Long solutionTimeout = null;
+    /**
+     * The directory in which test results are cached between runs; null if results
+     * should not be cached.
+     */
+    private String cacheDir = null;
 
     /**
-     * Constructor for a ConfigFile object; initializes all fields.
+     * Constructor for a ConfigFile object; initializes the required fields. The
+     * optional settings keep their defaults (no limit on the number of semi-exhaustive
+     * test cases, no seed, the greedy approximation for the concise test set, the
+     * Tester's default time limits, and no caching) unless they are set afterwards.
      *
      * @param funcName  name of function under test
      * @param nodes     APyNodes used to generate TestCases
@@ -60,4 +108,182 @@ public class ConfigFile {
     public int getNumRand() {
         return this.numRand;
     }
+
+    /**
+     * Returns the maximum number of semi-exhaustive test cases to be generated.
+     *
+     * @return maximum number of semi-exhaustive test cases; Long.MAX_VALUE if there is
+     * no limit
+     */
+    public long getExBudget() {
+        return this.exBudget;
+    }
+
+    /**
+     * Sets the maximum number of semi-exhaustive test cases to be generated.
+     *
+     * @param exBudget  maximum number of semi-exhaustive test cases; Long.MAX_VALUE for
+     *                  no limit
+     */
+    public void setExBudget(long exBudget) {
+        this.exBudget = exBudget;
+    }
+
+    /**
+     * Returns the seed for random test generation.
+     *
+     * @return seed for random test generation; null if none was specified
+     */
+    public Long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Sets the seed for random test generation.
+     *
+     * @param seed  seed for random test generation; null to seed from system entropy
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the time budget for searching for a minimal concise test set.
+     *
+     * @return time budget in milliseconds; null if the greedy approximation should be
+     * used instead
+     */
+    public Long getSolverBudget() {
+        return this.solverBudget;
+    }
+
+    /**
+     * Sets the time budget for searching for a minimal concise test set.
+     *
+     * @param solverBudget  time budget in milliseconds; null to use the greedy
+     *                      approximation
+     */
+    public void setSolverBudget(Long solverBudget) {
+        this.solverBudget = solverBudget;
+    }
+
+    /**
+     * Returns whether the concise test set should favor test cases that are cheap to run.
+     *
+     * @return true if test cases should be weighted by their runtime on the reference
+     * solution; false otherwise
+     */
+    public boolean getWeightByCost() {
+        return this.weightByCost;
+    }
+
+    /**
+     * Sets whether the concise test set should favor test cases that are cheap to run.
+     *
+     * @param weightByCost  true to weight test cases by their runtime on the reference
+     *                      solution; false otherwise
+     */
+    public void setWeightByCost(boolean weightByCost) {
+        this.weightByCost = weightByCost;
+    }
+
+    /**
+     * Returns the wall-clock limit on each test case run on a buggy implementation.
+     *
+     * @return time limit in milliseconds (0 for no limit); null to use the Tester's
+     * default
+     */
+    public Long getTestTimeout() {
+        return this.testTimeout;
+    }
+
+    /**
+     * Sets the wall-clock limit on each test case run on a buggy implementation.
+     *
+     * @param testTimeout   time limit in milliseconds (0 for no limit); null to use the
+     *                      Tester's default
+     */
+    public void setTestTimeout(Long testTimeout) {
+        this.testTimeout = testTimeout;
+    }
+
+    /**
+     * Returns the CPU limit on each test case run on a buggy implementation.
+     *
+     * @return time limit in milliseconds (0 for no limit); null to use the Tester's
+     * default
+     */
+    public Long getCpuTimeout() {
+        return this.cpuTimeout;
+    }
+
+    /**
+     * Sets the CPU limit on each test case run on a buggy implementation.
+     *
+     * @param cpuTimeout    time limit in milliseconds (0 for no limit); null to use the
+     *                      Tester's default
+     */
+    public void setCpuTimeout(Long cpuTimeout) {
+        this.cpuTimeout = cpuTimeout;
+    }
+
+    /**
+     * Returns the wall-clock limit on all of the test cases run on a single buggy
+     * implementation.
+     *
+     * @return time limit in milliseconds (0 for no limit); null to use the Tester's
+     * default
+     */
+    public Long getImplTimeout() {
+        return this.implTimeout;
+    }
+
+    /**
+     * Sets the wall-clock limit on all of the test cases run on a single buggy
+     * implementation.
+     *
+     * @param implTimeout   time limit in milliseconds (0 for no limit); null to use the
+     *                      Tester's default
+     */
+    public void setImplTimeout(Long implTimeout) {
+        this.implTimeout = implTimeout;
+    }
+
+    /**
+     * Returns the wall-clock limit on each test case run on the reference solution.
+     *
+     * @return time limit in milliseconds (0 for no limit); null to use the Tester's
+     * default
+     */
+    public Long getSolutionTimeout() {
+        return this.solutionTimeout;
+    }
+
+    /**
+     * Sets the wall-clock limit on each test case run on the reference solution.
+     *
+     * @param solutionTimeout   time limit in milliseconds (0 for no limit); null to use
+     *                          the Tester's default
+     */
+    public void setSolutionTimeout(Long solutionTimeout) {
+        this.solutionTimeout = solutionTimeout;
+    }
+
+    /**
+     * Returns the directory in which test results are cached between runs.
+     *
+     * @return path to the cache directory; null if results should not be cached
+     */
+    public String getCacheDir() {
+        return this.cacheDir;
+    }
+
+    /**
+     * Sets the directory in which test results are cached between runs.
+     *
+     * @param cacheDir  path to the cache directory; null to not cache results
+     */
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
 }
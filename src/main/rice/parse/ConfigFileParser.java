@@ -163,7 +163,107 @@ public class ConfigFileParser {
 
             parseDomain(ranDom, typeParams.get(i), "random");
         }
-        return new ConfigFile(fname,typeParams,numRand);
+        ConfigFile configFile = new ConfigFile(fname, typeParams, numRand);
+        parseOptions(obj, configFile);
+        return configFile;
+    }
+
+    /**
+     * A helper function to parse the optional settings. Sets each one that is present in
+     * the config file on the given ConfigFile, leaving the others at their defaults.
+     *
+     * @param obj           JSONObject holding the contents of the config file
+     * @param configFile    the ConfigFile on which to set the optional settings
+     * @throws InvalidConfigException   an optional setting is malformed
+     */
+    private static void parseOptions(JSONObject obj, ConfigFile configFile)
+            throws InvalidConfigException {
+        //extracts the optional limit on the number of exhaustive tests from JSONObject
+        if (obj.has("exhaustive budget")) {
+            Object budget = obj.get("exhaustive budget");
+            if (!(budget instanceof Integer || budget instanceof Long)) {
+                throw new InvalidConfigException("exhaustive budget is not an integer");
+            }
+            long exBudget = ((Number) budget).longValue();
+            if (exBudget < 0) {
+                throw new InvalidConfigException("exhaustive budget is a negative integer");
+            }
+            configFile.setExBudget(exBudget);
+        }
+
+        //extracts the optional seed for random test generation from JSONObject
+        if (obj.has("seed")) {
+            Object seedObj = obj.get("seed");
+            if (!(seedObj instanceof Integer || seedObj instanceof Long)) {
+                throw new InvalidConfigException("seed is not an integer");
+            }
+            configFile.setSeed(((Number) seedObj).longValue());
+        }
+
+        //extracts the optional time budget (in milliseconds) for finding a minimal test set
+        if (obj.has("solver budget")) {
+            Object budget = obj.get("solver budget");
+            if (!(budget instanceof Integer || budget instanceof Long)) {
+                throw new InvalidConfigException("solver budget is not an integer");
+            }
+            long solverBudget = ((Number) budget).longValue();
+            if (solverBudget < 0) {
+                throw new InvalidConfigException("solver budget is a negative integer");
+            }
+            configFile.setSolverBudget(solverBudget);
+        }
+
+        //extracts the optional choice to weight test cases by their runtime from JSONObject
+        if (obj.has("weight by cost")) {
+            Object weight = obj.get("weight by cost");
+            if (!(weight instanceof Boolean)) {
+                throw new InvalidConfigException("weight by cost is not a boolean");
+            }
+            boolean weightByCost = (Boolean) weight;
+            if (weightByCost && configFile.getSolverBudget() != null) {
+                throw new InvalidConfigException(
+                        "weight by cost cannot be combined with a solver budget");
+            }
+            configFile.setWeightByCost(weightByCost);
+        }
+
+        //extracts the optional time limits (in milliseconds) from JSONObject
+        configFile.setTestTimeout(parseMillis(obj, "test timeout"));
+        configFile.setCpuTimeout(parseMillis(obj, "cpu timeout"));
+        configFile.setImplTimeout(parseMillis(obj, "impl timeout"));
+        configFile.setSolutionTimeout(parseMillis(obj, "solution timeout"));
+
+        //extracts the optional directory for caching test results from JSONObject
+        if (obj.has("cache dir")) {
+            Object cacheDir = obj.get("cache dir");
+            if (!(cacheDir instanceof String) || ((String) cacheDir).isBlank()) {
+                throw new InvalidConfigException("cache dir is not a non-empty String");
+            }
+            configFile.setCacheDir((String) cacheDir);
+        }
+    }
+
+    /**
+     * A helper function to parse an optional time limit.
+     *
+     * @param obj       JSONObject holding the contents of the config file
+     * @param key       the key of the time limit
+     * @return the time limit in milliseconds, or null if the key is not present
+     * @throws InvalidConfigException   the time limit is not a non-negative integer
+     */
+    private static Long parseMillis(JSONObject obj, String key)
+            throws InvalidConfigException {
+        if (!obj.has(key)) {
+            return null;
+        }
+        Object millis = obj.get(key);
+        if (!(millis instanceof Integer || millis instanceof Long)) {
+            throw new InvalidConfigException(key + " is not an integer");
+        }
+        if (((Number) millis).longValue() < 0) {
+            throw new InvalidConfigException(key + " is a negative integer");
+        }
+        return ((Number) millis).longValue();
     }
 
     /**
@@ -0,0 +1,232 @@
+package main.rice.test;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of non-negative integers (e.g. the indices of files), stored as a
+ * row of bits packed into 64-bit words: bit (i % 64) of word (i / 64) is set if and only
+ * if i is in the set. This takes one bit per possible element, rather than a boxed
+ * Integer and a hash table entry per element, and lets whole sets be combined a word at
+ * a time.
+ */
+public class IndexSet extends AbstractSet<Integer> {
+
+    /**
+     * The words holding the bits of this set.
+     */
+    private final long[] words;
+
+    /**
+     * The number of elements in this set.
+     */
+    private final int size;
+
+    /**
+     * The cached hash code of this set; 0 until it is first computed.
+     */
+    private int hash;
+
+    /**
+     * Whether the hash code of this set has been computed and turned out to be 0.
+     */
+    private boolean hashIsZero;
+
+    /**
+     * Constructor for an IndexSet that takes ownership of the given words, which must not
+     * be modified afterwards.
+     *
+     * @param words the words holding the bits of the set
+     */
+    public IndexSet(long[] words) {
+        this.words = words;
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.size = count;
+    }
+
+    /**
+     * Computes the number of words needed to hold the given number of bits.
+     *
+     * @param numBits the number of bits
+     * @return the number of 64-bit words needed to hold numBits bits
+     */
+    public static int numWords(int numBits) {
+        return (numBits + 63) >>> 6;
+    }
+
+    /**
+     * Packs the given integers into a row of bits.
+     *
+     * @param elements the integers to be packed
+     * @param numWords the number of words in the row; must be enough to hold the largest
+     *                 of the elements
+     * @return the words holding the bits of the elements
+     * @throws IllegalArgumentException if any of the elements is negative
+     */
+    public static long[] toWords(Collection<Integer> elements, int numWords) {
+        long[] words = new long[numWords];
+        for (int element : elements) {
+            if (element < 0) {
+                throw new IllegalArgumentException("Error: " + element + " is negative");
+            }
+            words[element >>> 6] |= 1L << element;
+        }
+        return words;
+    }
+
+    /**
+     * Sets the given bit in a row of bits.
+     *
+     * @param words the words holding the bits of the row
+     * @param index the index of the bit to be set
+     */
+    public static void setBit(long[] words, int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Returns the words holding the bits of this set, which must not be modified.
+     *
+     * @return the words holding the bits of this set
+     */
+    public long[] getWords() {
+        return this.words;
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether the given object is an element of this set.
+     *
+     * @param obj the object to look for
+     * @return true if obj is an Integer in this set; false otherwise
+     */
+    @Override
+    public boolean contains(Object obj) {
+        if (!(obj instanceof Integer element) || element < 0) {
+            return false;
+        }
+        int wordIndex = element >>> 6;
+        return wordIndex < this.words.length
+                && (this.words[wordIndex] & (1L << element)) != 0;
+    }
+
+    /**
+     * Computes the hash code of this set, which (as for every Set) is the sum of its
+     * elements, without boxing them; it is cached, so that sets can be used cheaply as
+     * keys when looking for duplicate rows of bits.
+     *
+     * @return the hash code of this set
+     */
+    @Override
+    public int hashCode() {
+        int h = this.hash;
+        if (h == 0 && !this.hashIsZero) {
+            for (int i = 0; i < this.words.length; i++) {
+                long word = this.words[i];
+                while (word != 0) {
+                    h += (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            if (h == 0) {
+                this.hashIsZero = true;
+            } else {
+                this.hash = h;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Compares this set to the given object; another IndexSet is compared a word at a
+     * time (ignoring any trailing words that are all zero), and any other Set is compared
+     * element by element.
+     *
+     * @param obj the object to compare against
+     * @return true if obj is a Set with the same elements as this set; false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IndexSet other)) {
+            return super.equals(obj);
+        }
+        if (this.size != other.size) {
+            return false;
+        }
+        int common = Math.min(this.words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            if (this.words[i] != other.words[i]) {
+                return false;
+            }
+        }
+        // Since the sizes match, any remaining words must be all zero
+        return true;
+    }
+
+    /**
+     * Returns an iterator over the elements of this set, in ascending order.
+     *
+     * @return an iterator over the elements of this set
+     */
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+
+            /**
+             * The index of the word holding the next element.
+             */
+            private int wordIndex = 0;
+
+            /**
+             * The bits of the current word that haven't been returned yet.
+             */
+            private long remaining = (IndexSet.this.words.length > 0)
+                    ? IndexSet.this.words[0] : 0;
+
+            /**
+             * Returns true if there are any elements left; false otherwise.
+             *
+             * @return true if there are any elements left; false otherwise
+             */
+            @Override
+            public boolean hasNext() {
+                while (this.remaining == 0
+                        && this.wordIndex + 1 < IndexSet.this.words.length) {
+                    this.wordIndex++;
+                    this.remaining = IndexSet.this.words[this.wordIndex];
+                }
+                return this.remaining != 0;
+            }
+
+            /**
+             * Returns the next element.
+             *
+             * @return the next element
+             * @throws NoSuchElementException if there are no elements left
+             */
+            @Override
+            public Integer next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(this.remaining);
+                this.remaining &= this.remaining - 1;
+                return (this.wordIndex << 6) + bit;
+            }
+        };
+    }
+}
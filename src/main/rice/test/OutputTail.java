@@ -0,0 +1,203 @@
+package main.rice.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Drains a process's output stream as it is written, so that the process never blocks on
+ * a full pipe, while retaining only the last complete line and a bounded tail of
+ * everything that was written. Lines are cut off at a maximum length (which is recorded,
+ * so that a cut-off line is never mistaken for a complete one), so memory use stays flat
+ * no matter how much the process prints.
+ */
+public class OutputTail implements Runnable {
+
+    /**
+     * The default maximum number of characters kept in the tail.
+     */
+    public static final int DEFAULT_TAIL_SIZE = 4096;
+
+    /**
+     * The default maximum number of characters kept from each line; a small multiple of
+     * the tail size, so that draining a stream takes a small, fixed amount of memory.
+     */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 16 * DEFAULT_TAIL_SIZE;
+
+    /**
+     * The stream being drained.
+     */
+    private final Reader reader;
+
+    /**
+     * The maximum number of characters kept in the tail.
+     */
+    private final int tailSize;
+
+    /**
+     * The maximum number of characters kept from each line.
+     */
+    private final int maxLineLength;
+
+    /**
+     * The most recent characters written to the stream (at most 2 * tailSize of them,
+     * trimmed to tailSize when read).
+     */
+    private final StringBuilder tail = new StringBuilder();
+
+    /**
+     * The line currently being read (at most maxLineLength characters of it).
+     */
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Set if the line currently being read has been cut off.
+     */
+    private boolean lineCutOff = false;
+
+    /**
+     * The last complete line written to the stream, without its line terminator.
+     */
+    private String lastLine = "";
+
+    /**
+     * Set if the last complete line was cut off.
+     */
+    private boolean lastLineCutOff = false;
+
+    /**
+     * Constructor for an OutputTail; does not start draining the stream. Lines are cut
+     * off at DEFAULT_MAX_LINE_LENGTH characters.
+     *
+     * @param stream   the stream to be drained
+     * @param tailSize the maximum number of characters kept in the tail
+     */
+    public OutputTail(InputStream stream, int tailSize) {
+        this(stream, tailSize, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Constructor for an OutputTail; does not start draining the stream.
+     *
+     * @param stream        the stream to be drained
+     * @param tailSize      the maximum number of characters kept in the tail
+     * @param maxLineLength the maximum number of characters kept from each line
+     */
+    public OutputTail(InputStream stream, int tailSize, int maxLineLength) {
+        this.reader = new InputStreamReader(stream, StandardCharsets.UTF_8);
+        this.tailSize = Math.max(0, tailSize);
+        this.maxLineLength = Math.max(0, maxLineLength);
+    }
+
+    /**
+     * Starts draining a stream on a new background thread.
+     *
+     * @param tail the object that drains the stream
+     * @return the thread draining the stream, which finishes once the stream is closed
+     */
+    public static Thread start(OutputTail tail) {
+        Thread thread = new Thread(tail, "OutputTail drainer");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Reads the stream until it is closed, updating the last line and the tail as it
+     * goes.
+     */
+    @Override
+    public void run() {
+        char[] buffer = new char[8192];
+        try (this.reader) {
+            int numRead;
+            while ((numRead = this.reader.read(buffer)) != -1) {
+                this.append(buffer, numRead);
+            }
+        } catch (IOException e) {
+            // The stream was closed underneath us (e.g. because the process was killed);
+            // keep whatever was read before that
+        }
+
+        // A final line need not be terminated
+        synchronized (this) {
+            if (this.line.length() > 0 || this.lineCutOff) {
+                this.endLine();
+            }
+        }
+    }
+
+    /**
+     * Processes a chunk of characters read from the stream.
+     *
+     * @param buffer  the buffer holding the chunk
+     * @param numRead the number of characters in the chunk
+     */
+    private synchronized void append(char[] buffer, int numRead) {
+        for (int i = 0; i < numRead; i++) {
+            char c = buffer[i];
+            if (c == '\n') {
+                // Treat "\r\n" the same as "\n"
+                int length = this.line.length();
+                if (length > 0 && this.line.charAt(length - 1) == '\r') {
+                    this.line.setLength(length - 1);
+                }
+                this.endLine();
+            } else if (this.line.length() < this.maxLineLength) {
+                this.line.append(c);
+            } else {
+                this.lineCutOff = true;
+            }
+        }
+
+        // Only trim the tail once it has doubled in size, so that trimming is amortized
+        this.tail.append(buffer, 0, numRead);
+        if (this.tail.length() > 2 * this.tailSize) {
+            this.tail.delete(0, this.tail.length() - this.tailSize);
+        }
+    }
+
+    /**
+     * Helper function for run() and append(); records the line currently being read as
+     * the last line, and starts a new one.
+     */
+    private void endLine() {
+        this.lastLine = this.line.toString();
+        this.lastLineCutOff = this.lineCutOff;
+        this.line.setLength(0);
+        this.lineCutOff = false;
+    }
+
+    /**
+     * Returns the last complete line written to the stream (or the final, unterminated
+     * line, once the stream has been closed).
+     *
+     * @return the last line written to the stream, cut off at the maximum line length;
+     * the empty string if there was none
+     */
+    public synchronized String getLastLine() {
+        return this.lastLine;
+    }
+
+    /**
+     * Returns true if the last line was longer than the maximum line length, in which
+     * case getLastLine() only returns its beginning; false otherwise.
+     *
+     * @return true if the last line was cut off; false otherwise
+     */
+    public synchronized boolean isLastLineCutOff() {
+        return this.lastLineCutOff;
+    }
+
+    /**
+     * Returns the most recent output written to the stream.
+     *
+     * @return at most tailSize of the characters most recently written to the stream
+     */
+    public synchronized String getTail() {
+        int length = this.tail.length();
+        return this.tail.substring(Math.max(0, length - this.tailSize));
+    }
+}
@@ -0,0 +1,214 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single long-lived Python process that answers requests over its stdin/stdout. Each
+ * request is framed as one header line of tab-separated fields (the last of which is the
+ * length, in bytes, of the payload) followed by the payload itself; a response consists
+ * of one or more lines, whose number depends on the request.
+ */
+public class PyWorker {
+
+    /**
+     * A single background thread, shared by all workers, that kills workers which take
+     * too long to respond.
+     */
+    private static final ScheduledExecutorService WATCHDOG =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PyWorker watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * The underlying Python process.
+     */
+    private final Process process;
+
+    /**
+     * The stream used to send requests to the process.
+     */
+    private final OutputStream requests;
+
+    /**
+     * The reader used to receive responses from the process.
+     */
+    private final BufferedReader responses;
+
+    /**
+     * Set once the worker has failed to answer a request, at which point it should no
+     * longer be used (even if the process has not quite finished exiting).
+     */
+    private volatile boolean broken = false;
+
+    /**
+     * Set once the worker has been killed for taking too long to respond.
+     */
+    private volatile boolean timedOut = false;
+
+    /**
+     * Constructor for a PyWorker; starts the Python process described by the given
+     * command. Anything the process writes to stderr is discarded.
+     *
+     * @param command the command-line args for starting the worker process
+     * @throws IOException if the process cannot be started
+     */
+    public PyWorker(List<String> command) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        this.process = pb.start();
+        this.requests = new BufferedOutputStream(this.process.getOutputStream());
+        this.responses = new BufferedReader(new InputStreamReader(
+                this.process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a single request to the worker and waits for the first line of its response.
+     *
+     * @param fields  the header fields describing the request; none may contain a tab or
+     *                a newline
+     * @param payload the payload of the request
+     * @return the first response line, or null if the worker died before responding
+     */
+    public String request(List<String> fields, String payload) {
+        this.send(fields, payload);
+        return this.receive();
+    }
+
+    /**
+     * Sends a single request to the worker without waiting for a response.
+     *
+     * @param fields  the header fields describing the request; none may contain a tab or
+     *                a newline
+     * @param payload the payload of the request
+     */
+    public void send(List<String> fields, String payload) {
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        String header = String.join("\t", fields) + "\t" + body.length + "\n";
+        try {
+            this.requests.write(header.getBytes(StandardCharsets.UTF_8));
+            this.requests.write(body);
+            this.requests.flush();
+        } catch (IOException e) {
+            // The pipe is broken, meaning that the process has already exited; this will
+            // be reported by the next call to receive()
+            this.broken = true;
+        }
+    }
+
+    /**
+     * Waits for the next line of the worker's response.
+     *
+     * @return the next response line, or null if the worker died before writing it
+     */
+    public String receive() {
+        if (this.broken) {
+            return null;
+        }
+        try {
+            String response = this.responses.readLine();
+            this.broken = (response == null);
+            return response;
+        } catch (IOException e) {
+            this.broken = true;
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the next line of the worker's response, killing the worker if it does
+     * not respond within the given time. Exactly one of the watchdog and the response
+     * settles the call: if the watchdog fires first, the call times out (even if a line
+     * arrives while the worker is being killed), and once a line has been received, the
+     * watchdog no longer kills the worker.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds; 0 to wait forever
+     * @return the next response line, or null if the worker died (or was killed) before
+     * writing it
+     */
+    public String receive(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return this.receive();
+        }
+        AtomicBoolean settled = new AtomicBoolean(false);
+        ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+            if (settled.compareAndSet(false, true)) {
+                this.kill();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            String response = this.receive();
+            if (!settled.compareAndSet(false, true)) {
+                // The watchdog got there first, so the worker is being killed; mark it
+                // here too, since the watchdog may not have done so yet
+                this.timedOut = true;
+                this.broken = true;
+                return null;
+            }
+            return response;
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    /**
+     * Returns true if the worker was killed for taking too long to respond; false
+     * otherwise.
+     *
+     * @return true if the worker timed out; false otherwise
+     */
+    public boolean hasTimedOut() {
+        return this.timedOut;
+    }
+
+    /**
+     * Kills the worker (along with any processes it spawned) because it took too long to
+     * respond. Any pending call to receive() will return null.
+     */
+    private void kill() {
+        this.timedOut = true;
+        this.broken = true;
+        destroyTree(this.process);
+    }
+
+    /**
+     * Forcibly destroys the given process, along with any processes it spawned.
+     *
+     * @param process the process to be destroyed
+     */
+    public static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Returns true if the worker process is still running and able to answer requests;
+     * false otherwise.
+     *
+     * @return true if the worker can still be used; false otherwise
+     */
+    public boolean isAlive() {
+        return !this.broken && this.process.isAlive();
+    }
+
+    /**
+     * Shuts down the worker by closing its stdin (which ends its request loop) and then
+     * forcibly destroying it, along with any processes it spawned.
+     */
+    public void close() {
+        try {
+            this.requests.close();
+        } catch (IOException e) {
+            // The process is already gone; nothing left to close
+        }
+        destroyTree(this.process);
+    }
+}
@@ -0,0 +1,145 @@
+package main.rice.test;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A bounded pool of PyWorkers that all run the same command. Workers are started lazily
+ * (up to the size of the pool) and are reused across requests, so that the cost of
+ * starting the Python interpreter and importing the worker's modules is only paid once
+ * per worker rather than once per request. A worker whose interpreter must not be
+ * reused can be retired instead of released, in which case a fresh one is started in
+ * its place ahead of time.
+ */
+public class PyWorkerPool implements AutoCloseable {
+
+    /**
+     * The command-line args used to start each worker.
+     */
+    private final List<String> command;
+
+    /**
+     * The maximum number of workers that can be running at once.
+     */
+    private final int size;
+
+    /**
+     * The workers that are currently running but not in use.
+     */
+    private final Deque<PyWorker> idle = new ArrayDeque<>();
+
+    /**
+     * The workers that are currently in use.
+     */
+    private final Set<PyWorker> inUse = new HashSet<>();
+
+    /**
+     * The number of workers that are currently running (whether idle or in use).
+     */
+    private int numStarted = 0;
+
+    /**
+     * Set once the pool has been closed; no more workers can be acquired after this
+     * point, and workers released after it are shut down rather than being kept around.
+     */
+    private boolean closed = false;
+
+    /**
+     * Constructor for a PyWorkerPool; does not start any workers.
+     *
+     * @param command the command-line args used to start each worker
+     * @param size    the maximum number of workers that can be running at once
+     */
+    public PyWorkerPool(List<String> command, int size) {
+        this.command = command;
+        this.size = Math.max(1, size);
+    }
+
+    /**
+     * Takes an idle worker from the pool, starting a new one if none are idle and the
+     * pool is not yet full, or waiting for one to be released otherwise.
+     *
+     * @return a worker that is reserved for use by the caller until it is released
+     * @throws IOException          if a new worker cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws IllegalStateException if the pool is closed (including while waiting)
+     */
+    public synchronized PyWorker acquire() throws IOException, InterruptedException {
+        while (!this.closed && this.idle.isEmpty() && this.numStarted >= this.size) {
+            this.wait();
+        }
+        if (this.closed) {
+            throw new IllegalStateException("Error: worker pool is closed");
+        }
+        PyWorker worker;
+        if (!this.idle.isEmpty()) {
+            worker = this.idle.pop();
+        } else {
+            worker = new PyWorker(this.command);
+            this.numStarted++;
+        }
+        this.inUse.add(worker);
+        return worker;
+    }
+
+    /**
+     * Returns a worker to the pool. Workers that have died (e.g. because the code they
+     * were running called exit()) are discarded, so that a fresh one will be started in
+     * their place.
+     *
+     * @param worker the worker to be returned
+     */
+    public synchronized void release(PyWorker worker) {
+        this.inUse.remove(worker);
+        if (worker.isAlive() && !this.closed) {
+            this.idle.push(worker);
+        } else {
+            worker.close();
+            this.numStarted--;
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Shuts down a worker that must not be reused (e.g. because the code it ran may have
+     * changed the interpreter's global state), and starts a fresh one in its place, so
+     * that the next caller to acquire a worker doesn't have to wait for it to start up.
+     *
+     * @param worker the worker to be shut down
+     */
+    public synchronized void retire(PyWorker worker) {
+        this.inUse.remove(worker);
+        worker.close();
+        this.numStarted--;
+        if (!this.closed) {
+            try {
+                this.idle.push(new PyWorker(this.command));
+                this.numStarted++;
+            } catch (IOException e) {
+                // Leave the slot empty; the next call to acquire() will try to start a
+                // worker again, and report the failure if it happens again
+            }
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Shuts down every worker in the pool. Workers that are still in use are killed too,
+     * so that a caller stuck waiting on one of them gets null rather than waiting
+     * forever; they still count towards the pool until they are released. Callers
+     * waiting to acquire a worker are woken up, and fail.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        for (PyWorker worker : this.idle) {
+            worker.close();
+        }
+        for (PyWorker worker : this.inUse) {
+            worker.close();
+        }
+        this.numStarted -= this.idle.size();
+        this.idle.clear();
+        this.notifyAll();
+    }
+}
@@ -0,0 +1,103 @@
+package main.rice.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * An on-disk cache of per-file result vectors, so that files which have not changed since
+ * the last run do not need to be tested again. Each entry is stored in its own file,
+ * named after its key, with one result per line.
+ */
+public class ResultCache {
+
+    /**
+     * The directory in which the entries are stored.
+     */
+    private final Path dir;
+
+    /**
+     * Constructor for a ResultCache; the directory is created when the first entry is
+     * stored.
+     *
+     * @param dir the directory in which the entries are stored
+     */
+    public ResultCache(String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    /**
+     * Computes a cache key from the given parts. Each part is prefixed with its length,
+     * so that different splits of the same bytes never collide.
+     *
+     * @param parts the contents that determine the cached value
+     * @return the SHA-256 hash of the parts, in hex
+     */
+    public static String hash(List<byte[]> parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        for (byte[] part : parts) {
+            digest.update((part.length + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(part);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Looks up the entry with the given key.
+     *
+     * @param key      the key of the entry
+     * @param numTests the number of results the entry should hold
+     * @return the cached results, or null if there is no (valid) entry with the given key
+     */
+    public List<String> get(String key, int numTests) {
+        Path file = this.dir.resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            List<String> results = Files.readAllLines(file, StandardCharsets.UTF_8);
+            return results.size() == numTests ? results : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores an entry. The entry is written to a temporary file and then moved into
+     * place, so that concurrent runs never see a partially-written entry.
+     *
+     * @param key     the key of the entry
+     * @param results the results to be cached; none may contain a newline
+     */
+    public void put(String key, List<String> results) {
+        Path temp = null;
+        try {
+            Files.createDirectories(this.dir);
+            temp = Files.createTempFile(this.dir, key, ".tmp");
+            Files.write(temp, results, StandardCharsets.UTF_8);
+            Files.move(temp, this.dir.resolve(key), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The cache is only an optimization, so failing to update it is not an error
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+                // Nothing more can be done
+            }
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package main.rice.test;
 
 import main.rice.obj.APyObj;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * A representation of a test case; a wrapper around its arguments, each of which is an
- * APyObj.
+ * APyObj. Test cases are immutable, so their hash codes and string representations are
+ * cached.
  */
 public class TestCase {
 
@@ -14,13 +16,31 @@ public class TestCase {
      */
     private final List<APyObj<?>> args;
 
+    /**
+     * The cached hash code of this test case; 0 if it hasn't been computed yet (or if it
+     * is actually 0, in which case hashIsZero is true).
+     */
+    private int hash;
+
+    /**
+     * Whether the hash code of this test case has been computed and is 0.
+     */
+    private boolean hashIsZero;
+
+    /**
+     * The cached string representation of this test case's arguments; null until it is
+     * first requested.
+     */
+    private String repr;
+
     /**
      * Constructor for a TestCase; initializes its list of arguments to the input.
      *
-     * @param args the list of arguments (Python objects) comprising this test case
+     * @param args the list of arguments (Python objects) comprising this test case;
+     *             must not be modified afterwards
      */
     public TestCase(List<APyObj<?>> args) {
-        this.args = args;
+        this.args = Collections.unmodifiableList(args);
     }
 
     /**
@@ -39,7 +59,12 @@ public class TestCase {
      */
     @Override
     public String toString() {
-        return this.args.toString();
+        String repr = this.repr;
+        if (repr == null) {
+            repr = this.args.toString();
+            this.repr = repr;
+        }
+        return repr;
     }
 
     /**
@@ -56,6 +81,11 @@ public class TestCase {
             return false;
         }
 
+        // Test cases with different (cached) hash codes can't be equal
+        if (this.hashCode() != other.hashCode()) {
+            return false;
+        }
+
         // Compare the lists of arguments for equality
         return this.args.equals(other.getArgs());
     }
@@ -68,6 +98,17 @@ public class TestCase {
      */
     @Override
     public int hashCode() {
-        return this.args.hashCode();
+        // Like String, each field is only written once its final value is known, so
+        // racing threads at worst compute the same hash code twice
+        int hash = this.hash;
+        if (hash == 0 && !this.hashIsZero) {
+            hash = this.args.hashCode();
+            if (hash == 0) {
+                this.hashIsZero = true;
+            } else {
+                this.hash = hash;
+            }
+        }
+        return hash;
     }
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package main.rice.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * A representation of the results of running a series of tests on a series of files.
+ * Which files each test caught is stored as a dense matrix of bits, with one row of
+ * words per test case (see IndexSet), rather than as a set of boxed Integers per test
+ * case.
  */
 public class TestResults {
 
@@ -19,16 +26,29 @@ public class TestResults {
      * integers representing the indices of the files that were caught by that i-th test
      * case in allCases.
      */
-    private final List<Set<Integer>> caseToFiles;
+    private final List<IndexSet> caseToFiles;
 
     /**
      * A set of integers representing the indices of the files that failed one or more
      * tests in allCases.
      */
-    private final Set<Integer> wrongSet;
+    private final IndexSet wrongSet;
 
     /**
-     * Constructor for a TestResults object; initializes all fields.
+     * The number of words in each row of bits (in caseToFiles and wrongSet).
+     */
+    private final int numWords;
+
+    /**
+     * A list where the i-th element is the set of integers representing the indices of
+     * the files that timed out on the i-th test case in allCases. Timing out counts as
+     * failing, so each of these sets is a subset of the corresponding set in caseToFiles.
+     */
+    private final List<Set<Integer>> caseToTimeouts;
+
+    /**
+     * Constructor for a TestResults object where no file timed out on any test case;
+     * initializes all fields.
      *
      * @param allCases    all test cases that were executed
      * @param caseToFiles a list where the i-th element is a set of integers representing
@@ -37,9 +57,112 @@ public class TestResults {
      */
     public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
                        Set<Integer> wrongSet) {
+        this(allCases, caseToFiles, wrongSet, noTimeouts(caseToFiles.size()));
+    }
+
+    /**
+     * Constructor for a TestResults object; initializes all fields.
+     *
+     * @param allCases       all test cases that were executed
+     * @param caseToFiles    a list where the i-th element is a set of integers
+     *                       representing the files that were caught by the i-th test case
+     *                       in allCases
+     * @param wrongSet       the set of all files that failed one or more tests in allCases
+     * @param caseToTimeouts a list where the i-th element is a set of integers
+     *                       representing the files that timed out on the i-th test case
+     *                       in allCases
+     */
+    public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
+                       Set<Integer> wrongSet, List<Set<Integer>> caseToTimeouts) {
+        this(allCases, toRows(caseToFiles, wrongSet), caseToTimeouts);
+    }
+
+    /**
+     * Constructor for a TestResults object that takes ownership of the given rows of
+     * bits, which must not be modified afterwards.
+     *
+     * @param allCases       all test cases that were executed
+     * @param caseToFiles    an array where the i-th element holds the bits of the files
+     *                       that were caught by the i-th test case in allCases
+     * @param wrongSet       the bits of the files that failed one or more tests in
+     *                       allCases
+     * @param caseToTimeouts a list where the i-th element is a set of integers
+     *                       representing the files that timed out on the i-th test case
+     *                       in allCases
+     * @throws IllegalArgumentException if the rows are not all the same length
+     */
+    public TestResults(List<TestCase> allCases, long[][] caseToFiles, long[] wrongSet,
+                       List<Set<Integer>> caseToTimeouts) {
         this.allCases = allCases;
-        this.caseToFiles = caseToFiles;
-        this.wrongSet = wrongSet;
+        this.numWords = wrongSet.length;
+        List<IndexSet> rows = new ArrayList<>(caseToFiles.length);
+        for (long[] row : caseToFiles) {
+            if (row.length != this.numWords) {
+                throw new IllegalArgumentException("Error: rows of bits differ in length");
+            }
+            rows.add(new IndexSet(row));
+        }
+        this.caseToFiles = Collections.unmodifiableList(rows);
+        this.wrongSet = new IndexSet(wrongSet);
+        this.caseToTimeouts = caseToTimeouts;
+    }
+
+    /**
+     * Helper constructor for converting sets of files into rows of bits.
+     *
+     * @param allCases       all test cases that were executed
+     * @param rows           the rows of bits; the last one is the wrong set, and the
+     *                       others are the sets of files caught by each test case
+     * @param caseToTimeouts the sets of files that timed out on each test case
+     */
+    private TestResults(List<TestCase> allCases, long[][] rows,
+                        List<Set<Integer>> caseToTimeouts) {
+        this(allCases, Arrays.copyOf(rows, rows.length - 1), rows[rows.length - 1],
+                caseToTimeouts);
+    }
+
+    /**
+     * Helper function for converting sets of files into rows of bits that are all long
+     * enough to hold the largest file index in any of the sets.
+     *
+     * @param caseToFiles a list where the i-th element is a set of integers representing
+     *                    the files that were caught by the i-th test case
+     * @param wrongSet    the set of all files that failed one or more tests
+     * @return an array holding the rows of bits of each set in caseToFiles, followed by
+     * the row of bits of wrongSet
+     */
+    private static long[][] toRows(List<Set<Integer>> caseToFiles, Set<Integer> wrongSet) {
+        int numFiles = 0;
+        for (int file : wrongSet) {
+            numFiles = Math.max(numFiles, file + 1);
+        }
+        for (Set<Integer> files : caseToFiles) {
+            for (int file : files) {
+                numFiles = Math.max(numFiles, file + 1);
+            }
+        }
+
+        int numWords = IndexSet.numWords(numFiles);
+        long[][] rows = new long[caseToFiles.size() + 1][];
+        for (int i = 0; i < caseToFiles.size(); i++) {
+            rows[i] = IndexSet.toWords(caseToFiles.get(i), numWords);
+        }
+        rows[caseToFiles.size()] = IndexSet.toWords(wrongSet, numWords);
+        return rows;
+    }
+
+    /**
+     * Helper function for building a caseToTimeouts list in which no file timed out.
+     *
+     * @param numCases the number of test cases
+     * @return a list of numCases empty sets
+     */
+    private static List<Set<Integer>> noTimeouts(int numCases) {
+        List<Set<Integer>> caseToTimeouts = new ArrayList<>();
+        for (int i = 0; i < numCases; i++) {
+            caseToTimeouts.add(new HashSet<>());
+        }
+        return caseToTimeouts;
     }
 
     /**
@@ -67,6 +190,16 @@ public class TestResults {
         return this.wrongSet;
     }
 
+    /**
+     * Returns the bits of the files that failed one or more test cases, which must not
+     * be modified.
+     *
+     * @return the words holding the bits of the wrong set
+     */
+    public long[] getWrongWords() {
+        return this.wrongSet.getWords();
+    }
+
     /**
      * Returns the per-case list of files that each test case caught, where files are
      * represented by their indices.
@@ -74,6 +207,36 @@ public class TestResults {
      * @return the per-case list of files that each test case caught
      */
     public List<Set<Integer>> getCaseToFiles() {
-        return this.caseToFiles;
+        return Collections.unmodifiableList(this.caseToFiles);
+    }
+
+    /**
+     * Returns the bits of the files that the given test case caught, which must not be
+     * modified.
+     *
+     * @param index the index of the test case
+     * @return the words holding the bits of the files that the index-th test case caught
+     */
+    public long[] getCaseWords(int index) {
+        return this.caseToFiles.get(index).getWords();
+    }
+
+    /**
+     * Returns the number of words in each row of bits.
+     *
+     * @return the number of words in the bits of the wrong set and of each test case
+     */
+    public int getNumWords() {
+        return this.numWords;
+    }
+
+    /**
+     * Returns the per-case list of files that timed out on each test case, where files
+     * are represented by their indices.
+     *
+     * @return the per-case list of files that timed out on each test case
+     */
+    public List<Set<Integer>> getCaseToTimeouts() {
+        return this.caseToTimeouts;
     }
 }
\ No newline at end of file
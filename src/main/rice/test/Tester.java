@@ -2,7 +2,18 @@ package main.rice.test;
 
 import main.rice.obj.APyObj;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A class for running a test suite. Encapsulates the ability to run the test suite on a
@@ -34,6 +45,69 @@ public class Tester {
      */
     private final List<TestCase> tests;
 
+    /**
+     * The maximum number of implementations (and therefore Python workers) that are
+     * tested at the same time; defaults to the number of available processors.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The maximum wall-clock time, in milliseconds, that a single test case may run on a
+     * buggy implementation before its process is killed; 0 for no limit.
+     */
+    private long testTimeoutMillis = DEFAULT_TEST_TIMEOUT_MILLIS;
+
+    /**
+     * The maximum wall-clock time, in milliseconds, that a single test case may run on
+     * the reference solution; 0 for no limit.
+     */
+    private long solutionTimeoutMillis = 0;
+
+    /**
+     * The maximum CPU time, in milliseconds, that a single test case may use on a buggy
+     * implementation; 0 for no limit.
+     */
+    private long testCpuTimeoutMillis = 0;
+
+    /**
+     * The maximum total wall-clock time, in milliseconds, that may be spent testing a
+     * single buggy implementation; 0 for no limit.
+     */
+    private long implTimeoutMillis = 0;
+
+    /**
+     * The cache of per-file results, or null if results are not cached.
+     */
+    private ResultCache cache = null;
+
+    /**
+     * The i-th element is the time, in nanoseconds, that the reference solution took to
+     * run the i-th test case (-1 if unknown); null until the expected results have been
+     * computed.
+     */
+    private long[] expectedRuntimes = null;
+
+    /**
+     * The maximum number of test cases in one shard of the expected results.
+     */
+    private static final int MAX_SHARD_SIZE = 64;
+
+    /**
+     * The default value of testTimeoutMillis.
+     */
+    private static final long DEFAULT_TEST_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * The longest time, in milliseconds, to wait for unfinished tasks to stop when there
+     * is no limit on a single test case.
+     */
+    private static final long SHUTDOWN_GRACE_MILLIS = 1_000;
+
+    /**
+     * The result recorded for a test case that ran out of time.
+     */
+    private static final String TIMEOUT = "Timeout";
+
     /**
      * Constructor for a Tester, which initializes all of the fields using the given
      * inputs.
@@ -53,6 +127,76 @@ public class Tester {
         this.tests = tests;
     }
 
+    /**
+     * Sets the maximum number of implementations that are tested at the same time (and
+     * the number of threads that run the solution when computing the expected results).
+     * A parallelism of 1 does everything one step at a time.
+     *
+     * @param parallelism the maximum number of implementations to test at once
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Sets the maximum wall-clock time that a single test case may run on a buggy
+     * implementation before its process is killed. A buggy implementation that runs out
+     * of time fails the test case, and is recorded as having timed out.
+     *
+     * @param millis the time limit, in milliseconds; 0 for no limit
+     */
+    public void setTestTimeout(long millis) {
+        this.testTimeoutMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Sets the maximum wall-clock time that a single test case may run on the reference
+     * solution before its process is killed. There is no limit by default, since the
+     * expected results can't be computed without every test case; if the solution runs
+     * out of time, computing the expected results fails instead.
+     *
+     * @param millis the time limit, in milliseconds; 0 for no limit
+     */
+    public void setSolutionTimeout(long millis) {
+        this.solutionTimeoutMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Sets the maximum CPU time that a single test case may use on a buggy
+     * implementation. Unlike the wall-clock limit, this is not affected by how busy the
+     * machine is.
+     *
+     * @param millis the time limit, in milliseconds; 0 for no limit
+     */
+    public void setTestCpuTimeout(long millis) {
+        this.testCpuTimeoutMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Sets the maximum total wall-clock time that may be spent testing a single buggy
+     * implementation. Once an implementation has used up this time, every test case it
+     * has not yet finished is recorded as having timed out.
+     *
+     * @param millis the time limit, in milliseconds; 0 for no limit
+     */
+    public void setImplTimeout(long millis) {
+        this.implTimeoutMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Enables caching of the results of testing each buggy implementation, so that
+     * files which have not changed since a previous run (with the same function, test
+     * cases, and expected results) are not tested again. The expected result of each
+     * test case is cached as well, so that the solution is only run on test cases it
+     * has not seen before.
+     *
+     * @param cacheDirPath the path to the directory in which results are cached, or
+     *                     null to disable caching
+     */
+    public void setCacheDir(String cacheDirPath) {
+        this.cache = (cacheDirPath == null) ? null : new ResultCache(cacheDirPath);
+    }
+
     /**
      * Computes the expected results by running each test case on the solution file.
      * Stores the results in a list (which is returned) and also creates a .py file
@@ -60,7 +204,8 @@ public class Tester {
      *
      * @return a list where the i-th element is the result (a string) of running the i-th
      * test case on the reference solution
-     * @throws IOException if the path to the solution is invalid
+     * @throws IOException if the path to the solution is invalid, or the solution
+     *                     crashes or runs out of time on a test case
      * @throws InterruptedException if the process is interrupted
      */
     public List<String> computeExpectedResults() throws IOException, InterruptedException {
@@ -68,12 +213,16 @@ public class Tester {
         // the command-line, if the footer doesn't exist already
         this.appendToSolution();
 
-        // Run each test case on the solution file and gather the results in a map
+        // Run each test case on the solution file, splitting the test cases into shards
+        // that are run in parallel, and then reassemble the results in test order
         List<String> results = new ArrayList<>();
-        for (int i = 0; i < this.tests.size(); i++) {
-            List<String> args = this.getExpTestArgs(i);
-            String result = this.runTestHelper(args);
-            results.add(result);
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+        try {
+            for (Future<List<String>> shard : this.startExpectedResults(executor)) {
+                results.addAll(getResult(shard));
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
         // Write the expected results to a .py file, so that they can be accessed via
@@ -85,6 +234,25 @@ public class Tester {
         return results;
     }
 
+    /**
+     * Returns how long the reference solution took to run each test case when the
+     * expected results were computed (by computeExpectedResults() or
+     * runTestsPipelined()). Only the call to the function under test is timed, not
+     * starting Python or parsing the arguments. A runtime is -1 if it is unknown, which
+     * only happens if the expected result came from a cache entry that predates runtimes
+     * being recorded.
+     *
+     * @return an array whose i-th element is the runtime of the i-th test case, in
+     * nanoseconds
+     * @throws IllegalStateException if the expected results haven't been computed
+     */
+    public long[] getExpectedRuntimes() {
+        if (this.expectedRuntimes == null) {
+            throw new IllegalStateException("Error: expected results not yet computed");
+        }
+        return this.expectedRuntimes.clone();
+    }
+
     /**
      * Runs all tests on all files in the directory of buggy implementations, comparing
      * the outputs to the pre-generated expected results and returning the results in the
@@ -96,17 +264,258 @@ public class Tester {
      * @throws InterruptedException if the process is interrupted
      */
     public TestResults runTests() throws IOException, InterruptedException {
-        // Create the wrapper file
+        // Create the wrapper file, and find the files to be tested
         this.createWrapperFile();
+        List<String> implNames = this.listImplementations();
 
-        // Initialize the outputs
-        List<Set<Integer>> caseToFiles = new ArrayList<>();
-        for (int i = 0; i < this.tests.size(); i++) {
-            caseToFiles.add(new HashSet<>());
+        // Files whose results are already cached don't need to be tested again
+        List<String> keys = this.getCacheKeys(implNames, Paths.get(this.implDirPath,
+                "expected.py"));
+        List<List<String>> cached = this.getCachedResults(keys, implNames.size());
+
+        // Test each individual file using all tests in the base test set. The tests are
+        // run by workers that are started ahead of time, so each file only has to wait
+        // for Python to start and import the wrapper once (if at all), and only has to
+        // be compiled once. Each worker is retired after testing a file, so files are
+        // independent of one another, and up to this.parallelism of them are tested at
+        // the same time
+        List<List<String>> fileResults = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+        try (PyWorkerPool pool = new PyWorkerPool(this.getWorkerArgs(), this.parallelism)) {
+            try {
+                List<Future<List<String>>> futures = new ArrayList<>();
+                for (int trueIndex = 0; trueIndex < implNames.size(); trueIndex++) {
+                    if (cached.get(trueIndex) != null) {
+                        futures.add(CompletableFuture.completedFuture(
+                                cached.get(trueIndex)));
+                        continue;
+                    }
+                    String filename = implNames.get(trueIndex);
+                    futures.add(executor.submit(() -> this.runBatch(pool, filename, 0,
+                            this.tests.size(), "", this.newImplBudget())));
+                }
+                for (Future<List<String>> future : futures) {
+                    fileResults.add(getResult(future));
+                }
+            } finally {
+                // Stop every task before the pool is closed, so that (unless a task is
+                // stuck) none of them is still using (or waiting for) a worker when it is
+                this.shutdownAndAwait(executor);
+            }
+        }
+        this.putCachedResults(keys, cached, fileResults);
+
+        // Clean up the pycache that was created
+        this.deletePyCache();
+
+        // Return the results
+        return this.buildTestResults(fileResults);
+    }
+
+    /**
+     * Computes the expected results and runs all tests on all files in the directory of
+     * buggy implementations at the same time, returning the same results as
+     * computeExpectedResults() followed by runTests(). The test cases are split into
+     * shards, and each file starts being tested on a shard as soon as the expected
+     * results for that shard are known, rather than waiting for the expected results of
+     * every test case. Also creates expected.py, just like computeExpectedResults().
+     *
+     * @return the results of testing
+     * @throws IOException if the path to the solution or to the directory of buggy
+     *                     implementations is invalid, or the solution crashes or runs
+     *                     out of time on a test case
+     * @throws InterruptedException if the process is interrupted
+     */
+    public TestResults runTestsPipelined() throws IOException, InterruptedException {
+        this.appendToSolution();
+        this.createWrapperFile();
+        List<String> implNames = this.listImplementations();
+
+        // The solution and the files under test each get their own threads, so that
+        // testing can never hold up the computation of the expected results it's
+        // waiting for
+        List<String> keys = this.getCacheKeys(implNames, Paths.get(this.solutionPath));
+        List<List<String>> cached = this.getCachedResults(keys, implNames.size());
+
+        List<List<String>> fileResults = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        Map<String, AtomicLong> budgets = new HashMap<>();
+        for (String filename : implNames) {
+            budgets.put(filename, this.newImplBudget());
+        }
+        ExecutorService solExecutor = Executors.newFixedThreadPool(this.parallelism);
+        ExecutorService implExecutor = Executors.newFixedThreadPool(this.parallelism);
+        try (PyWorkerPool pool = new PyWorkerPool(this.getWorkerArgs(), this.parallelism)) {
+            try {
+                List<Future<List<String>>> shards =
+                        this.startExpectedResults(solExecutor);
+                List<int[]> bounds = this.getShardBounds();
+
+                // Submit shard-by-shard, so that the earliest shards are tested first.
+                // The expected results for the shard are sent along with the request,
+                // since expected.py won't exist until every shard has finished
+                List<List<Future<List<String>>>> futures = new ArrayList<>();
+                for (int shard = 0; shard < shards.size(); shard++) {
+                    Future<List<String>> shardResults = shards.get(shard);
+                    int start = bounds.get(shard)[0];
+                    int end = bounds.get(shard)[1];
+
+                    List<Future<List<String>>> shardFutures = new ArrayList<>();
+                    for (int trueIndex = 0; trueIndex < implNames.size(); trueIndex++) {
+                        if (cached.get(trueIndex) != null) {
+                            shardFutures.add(CompletableFuture.completedFuture(
+                                    cached.get(trueIndex).subList(start, end)));
+                            continue;
+                        }
+                        String filename = implNames.get(trueIndex);
+                        shardFutures.add(implExecutor.submit(() -> this.runBatch(pool,
+                                filename, start, end, getResult(shardResults).toString(),
+                                budgets.get(filename))));
+                    }
+                    futures.add(shardFutures);
+                }
+
+                // Reassemble the expected results and each file's results in test order
+                for (Future<List<String>> shard : shards) {
+                    expected.addAll(getResult(shard));
+                }
+                for (int trueIndex = 0; trueIndex < implNames.size(); trueIndex++) {
+                    List<String> results = new ArrayList<>();
+                    for (List<Future<List<String>>> shardFutures : futures) {
+                        results.addAll(getResult(shardFutures.get(trueIndex)));
+                    }
+                    fileResults.add(results);
+                }
+            } finally {
+                // Stop every task before the pool is closed, as in runTests()
+                this.shutdownAndAwait(solExecutor, implExecutor);
+            }
+        }
+        this.putCachedResults(keys, cached, fileResults);
+
+        // Write out the expected results (so that runTests() can be used later), clean
+        // up the pycache, and return the results
+        this.outputExpectedResults(expected);
+        this.deletePyCache();
+        return this.buildTestResults(fileResults);
+    }
+
+    /**
+     * Splits the indices of the test cases into contiguous shards for computing the
+     * expected results. There are several shards per thread, so that work stays evenly
+     * spread even if some test cases are slower than others.
+     *
+     * @return a list where each element is the [start, end) bounds of one shard
+     */
+    private List<int[]> getShardBounds() {
+        int numTests = this.tests.size();
+        int shardSize = Math.max(1, Math.min(MAX_SHARD_SIZE,
+                (numTests + 4 * this.parallelism - 1) / (4 * this.parallelism)));
+
+        List<int[]> bounds = new ArrayList<>();
+        for (int start = 0; start < numTests; start += shardSize) {
+            bounds.add(new int[]{start, Math.min(numTests, start + shardSize)});
+        }
+        return bounds;
+    }
+
+    /**
+     * Starts computing the expected results for each shard of the test cases on the
+     * given executor. If results are cached, test cases whose expected results are
+     * already known (for the same solution and function) are not run again.
+     *
+     * @param executor the executor on which to run the solution
+     * @return a list where the i-th element will hold the expected results of the i-th
+     * shard (as given by getShardBounds()), in test order
+     * @throws IOException if the solution file cannot be read
+     */
+    private List<Future<List<String>>> startExpectedResults(ExecutorService executor)
+            throws IOException {
+        // The solution is the same for every test case, so only read it once
+        byte[] solBytes = (this.cache == null) ? null :
+                Files.readAllBytes(Paths.get(this.solutionPath));
+        this.expectedRuntimes = new long[this.tests.size()];
+
+        List<Future<List<String>>> shards = new ArrayList<>();
+        for (int[] bounds : this.getShardBounds()) {
+            shards.add(executor.submit(() -> {
+                List<String> results = new ArrayList<>();
+                for (int i = bounds[0]; i < bounds[1]; i++) {
+                    results.add(this.getExpectedResult(i, solBytes));
+                }
+                return results;
+            }));
+        }
+        return shards;
+    }
+
+    /**
+     * Computes the expected result of a single test case, using the cache if possible,
+     * and records how long the solution took to run it. Each cache entry holds the
+     * result followed by the runtime; entries without a runtime are still used, in which
+     * case the runtime is unknown.
+     *
+     * @param testIndex the index of the test case
+     * @param solBytes  the contents of the solution file, or null if results are not
+     *                  cached
+     * @return the expected result of the test case
+     * @throws IOException if the solution cannot be run, or crashes or runs out of time
+     * @throws InterruptedException if the process is interrupted
+     */
+    private String getExpectedResult(int testIndex, byte[] solBytes)
+            throws IOException, InterruptedException {
+        if (solBytes == null) {
+            return this.recordRuntime(testIndex,
+                    this.runTestHelper(this.getExpTestArgs(testIndex)));
         }
-        Set<Integer> wrongSet = new HashSet<>();
 
-        // Get the list of all files in the input directory
+        String key = ResultCache.hash(List.of("expected".getBytes(StandardCharsets.UTF_8),
+                solBytes, this.funcName.getBytes(StandardCharsets.UTF_8),
+                this.tests.get(testIndex).toString().getBytes(StandardCharsets.UTF_8)));
+        List<String> cached = this.cache.get(key, 2);
+        if (cached == null) {
+            cached = this.cache.get(key, 1);
+        }
+        if (cached != null) {
+            return this.recordRuntime(testIndex, cached);
+        }
+
+        List<String> entry = this.runTestHelper(this.getExpTestArgs(testIndex));
+        this.cache.put(key, entry);
+        return this.recordRuntime(testIndex, entry);
+    }
+
+    /**
+     * Helper function for getExpectedResult; records the runtime of a test case.
+     *
+     * @param testIndex the index of the test case
+     * @param entry     the result of the test case, optionally followed by its runtime
+     *                  in nanoseconds
+     * @return the result of the test case
+     */
+    private String recordRuntime(int testIndex, List<String> entry) {
+        long runtime = -1;
+        if (entry.size() > 1) {
+            try {
+                runtime = Long.parseLong(entry.get(1));
+            } catch (NumberFormatException e) {
+                runtime = -1;
+            }
+        }
+        this.expectedRuntimes[testIndex] = runtime;
+        return entry.get(0);
+    }
+
+    /**
+     * Finds the files to be tested in the directory of buggy implementations. Each
+     * file's index is its position in the returned list, which is sorted by name.
+     *
+     * @return the names of the files to be tested
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     */
+    private List<String> listImplementations() throws IOException {
+        // If implDirPath didn't actually point to a directory, files would be null
         var dir = new File(this.implDirPath);
         String[] filenames = dir.list();
         if (filenames == null) {
@@ -114,40 +523,56 @@ public class Tester {
         }
         Arrays.sort(filenames);
 
-        // If implDirPath didn't actually point to a directory, files would be null
-        int trueIndex = 0;
-
-        // Test each individual file using all tests in the base test set
+        List<String> implNames = new ArrayList<>();
         for (String filename : filenames) {
-            if (!filename.endsWith(".py") || filename.equals("wrapper.py")
-                    || filename.equals("expected.py")) {
-                continue;
+            if (filename.endsWith(".py") && !filename.equals("wrapper.py")
+                    && !filename.equals("expected.py")) {
+                implNames.add(filename);
             }
+        }
+        return implNames;
+    }
+
+    /**
+     * Builds a TestResults object from the per-file results of testing.
+     *
+     * @param fileResults a list where the i-th element holds the results of running
+     *                    every test case on the i-th file ("True" for each test that
+     *                    passed, "Timeout" for each test that ran out of time)
+     * @return the results of testing
+     */
+    private TestResults buildTestResults(List<List<String>> fileResults) {
+        // Initialize the outputs; files are recorded as bits, one row per test case
+        int numWords = IndexSet.numWords(fileResults.size());
+        long[][] caseToFiles = new long[this.tests.size()][numWords];
+        List<Set<Integer>> caseToTimeouts = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            caseToTimeouts.add(new HashSet<>());
+        }
+        long[] wrongSet = new long[numWords];
 
-            // Run each test case on this file, keeping track of which ones caught
-            // errors
-            HashSet<Integer> caughtBy = new HashSet<>();
-            for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
-                List<String> args = this.getTestArgs(testIndex, filename);
-                String result = this.runTestHelper(args);
-                if (!result.equals("True")) {
-                    caseToFiles.get(testIndex).add(trueIndex);
-                    caughtBy.add(testIndex);
+        // Files are merged in order, so the results are identical to the results of
+        // testing the files one after another
+        for (int trueIndex = 0; trueIndex < fileResults.size(); trueIndex++) {
+            // Record which test cases caught errors in this file
+            List<String> results = fileResults.get(trueIndex);
+            boolean caught = false;
+            for (int testIndex = 0; testIndex < results.size(); testIndex++) {
+                if (!results.get(testIndex).equals("True")) {
+                    IndexSet.setBit(caseToFiles[testIndex], trueIndex);
+                    caught = true;
+                }
+                if (results.get(testIndex).equals(TIMEOUT)) {
+                    caseToTimeouts.get(testIndex).add(trueIndex);
                 }
             }
 
             // Add to wrongSet if applicable
-            if (caughtBy.size() > 0) {
-                wrongSet.add(trueIndex);
+            if (caught) {
+                IndexSet.setBit(wrongSet, trueIndex);
             }
-            trueIndex++;
         }
-
-        // Clean up the pycache that was created
-        this.deletePyCache();
-
-        // Return the results
-        return new TestResults(this.tests, caseToFiles, wrongSet);
+        return new TestResults(this.tests, caseToFiles, wrongSet, caseToTimeouts);
     }
 
     /**
@@ -174,111 +599,487 @@ public class Tester {
     }
 
     /**
-     * Builds the list of command-line arguments for executing a buggy implementation in
-     * order to get the actual results on a single test case.
+     * Builds the list of command-line arguments for starting a worker that runs the
+     * wrapper in server mode, so that it can execute many test cases on many buggy
+     * implementations over the course of its lifetime.
      *
-     * @param testIndex the index of the test case to be run
-     * @param filename  the name of the implementation being tested
-     * @return the command-line args for running the given test case through the solution
+     * @return the command-line args for starting a wrapper worker
      */
-    private List<String> getTestArgs(int testIndex, String filename) {
+    private List<String> getWorkerArgs() {
         List<String> args = new ArrayList<>();
 
         // The implementation must be a python3 file
         args.add("python");
 
-        // Directly invoking the wrapper, which will dynamically load the file under test
+        // Directly invoking the wrapper, which will dynamically load each file under test
         args.add(this.implDirPath + "/wrapper.py");
+        args.add("--serve");
+        return args;
+    }
 
-        // Need to include the index of the test case so that we can look up the expected
-        // results to determine whether the test passes or fails
-        args.add(String.valueOf(testIndex));
+    /**
+     * Computes the cache key for each of the given files. The key depends on the
+     * contents of the file, the contents of the reference that its results are checked
+     * against, the wrapper that runs the tests (so that changing how results are
+     * compared, or the CPU limit, invalidates the cache), the function under test, and
+     * the test cases. The wrapper must already have been created.
+     *
+     * @param implNames the names of the files to be tested
+     * @param reference the path to the file that determines the expected results
+     * @return a list where the i-th element is the key of the i-th file, or null if
+     * results are not cached
+     * @throws IOException if one of the files cannot be read
+     */
+    private List<String> getCacheKeys(List<String> implNames, Path reference)
+            throws IOException {
+        if (this.cache == null) {
+            return null;
+        }
 
-        // Also need to know which file we're testing and which function to invoke within
-        // the file under test
-        args.add(filename);
-        args.add(this.funcName);
+        // The parts shared by every file only need to be read once
+        StringBuilder sb = new StringBuilder();
+        for (TestCase test : this.tests) {
+            sb.append(test).append("\n");
+        }
+        byte[] refBytes = Files.readAllBytes(reference);
+        byte[] wrapperBytes = Files.readAllBytes(Paths.get(this.implDirPath, "wrapper.py"));
+        byte[] funcBytes = this.funcName.getBytes(StandardCharsets.UTF_8);
+        byte[] testBytes = sb.toString().getBytes(StandardCharsets.UTF_8);
 
-        // Add each argument as a string; the footer will take care of converting these to
-        // Python objects before invoking the function under test
-        TestCase test = this.tests.get(testIndex);
-        for (APyObj<?> arg : test.getArgs()) {
-            args.add(arg.toString());
+        List<String> keys = new ArrayList<>();
+        for (String filename : implNames) {
+            byte[] implBytes = Files.readAllBytes(Paths.get(this.implDirPath, filename));
+            keys.add(ResultCache.hash(List.of(implBytes, refBytes, wrapperBytes, funcBytes,
+                    testBytes)));
+        }
+        return keys;
+    }
+
+    /**
+     * Looks up the cached results of each file.
+     *
+     * @param keys     the cache key of each file, or null if results are not cached
+     * @param numFiles the number of files to be tested
+     * @return a list where the i-th element holds the cached results of the i-th file,
+     * or null if it has none
+     */
+    private List<List<String>> getCachedResults(List<String> keys, int numFiles) {
+        List<List<String>> cached = new ArrayList<>();
+        for (int trueIndex = 0; trueIndex < numFiles; trueIndex++) {
+            cached.add(keys == null ? null :
+                    this.cache.get(keys.get(trueIndex), this.tests.size()));
+        }
+        return cached;
+    }
+
+    /**
+     * Caches the results of each file that was actually tested. Results that include a
+     * timeout are not cached, since they may depend on how busy the machine was.
+     *
+     * @param keys        the cache key of each file, or null if results are not cached
+     * @param cached      the results of each file that were found in the cache
+     * @param fileResults the results of each file
+     */
+    private void putCachedResults(List<String> keys, List<List<String>> cached,
+                                  List<List<String>> fileResults) {
+        if (keys == null) {
+            return;
+        }
+        for (int trueIndex = 0; trueIndex < keys.size(); trueIndex++) {
+            List<String> results = fileResults.get(trueIndex);
+            if (cached.get(trueIndex) == null && !results.contains(TIMEOUT)) {
+                this.cache.put(keys.get(trueIndex), results);
+            }
+        }
+    }
+
+    /**
+     * Creates a new time budget for testing a single buggy implementation.
+     *
+     * @return the remaining time, in nanoseconds, that may be spent testing a single
+     * implementation, or null if there is no limit
+     */
+    private AtomicLong newImplBudget() {
+        if (this.implTimeoutMillis == 0) {
+            return null;
+        }
+        return new AtomicLong(TimeUnit.MILLISECONDS.toNanos(this.implTimeoutMillis));
+    }
+
+    /**
+     * Runs a contiguous slice of the test cases on a buggy implementation, using workers
+     * from the given pool. The whole slice is sent to a worker as a single batch, so the
+     * implementation is only compiled once; each test case still gets a fresh copy of
+     * the implementation's module, so the results don't depend on how the test cases
+     * are split into batches. Each worker runs a single batch and is then retired, so
+     * that global interpreter state changed by one implementation (e.g. builtins, the
+     * recursion limit, the random seed, or other imported modules) can't affect the
+     * results of another. If the worker dies partway through (e.g. because the
+     * implementation called exit(), or because it was killed for taking too long), the
+     * test case it died on is recorded as a failure and the rest of the slice is
+     * resubmitted to a fresh worker.
+     *
+     * @param pool     the pool of wrapper workers
+     * @param filename the name of the implementation being tested
+     * @param start    the index of the first test case to be run
+     * @param end      one past the index of the last test case to be run
+     * @param expected the expected results for the slice as a Python list, or the empty
+     *                 string to use the expected results stored in expected.py
+     * @param budget   the remaining time, in nanoseconds, that may be spent testing this
+     *                 implementation (which is reduced by the time spent here), or null
+     *                 if there is no limit
+     * @return a list where the i-th element is the result of the (start + i)-th test case
+     * ("True" if it passed, "Timeout" if it ran out of time), or the empty string if the
+     * worker died while running it
+     * @throws IOException if a worker cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for a
+     *                              worker
+     */
+    private List<String> runBatch(PyWorkerPool pool, String filename, int start, int end,
+                                  String expected, AtomicLong budget)
+            throws IOException, InterruptedException {
+        List<String> results = new ArrayList<>();
+        while (start + results.size() < end) {
+            // If this implementation has used up its time, don't run any more of its
+            // test cases
+            if (budget != null && budget.get() <= 0) {
+                results.add(TIMEOUT);
+                continue;
+            }
+
+            // The wrapper already knows the arguments for every test case, so the
+            // request only needs to say which file, which function, and which slice
+            // (and, optionally, which results to expect for the slice)
+            int next = start + results.size();
+            List<String> fields = List.of(filename, this.funcName, String.valueOf(start),
+                    String.valueOf(next), String.valueOf(end));
+
+            PyWorker worker = pool.acquire();
+            try {
+                worker.send(fields, expected);
+                for (int testIndex = next; testIndex < end; testIndex++) {
+                    long startTime = System.nanoTime();
+                    String result = worker.receive(this.getReceiveTimeout(budget));
+                    if (budget != null) {
+                        budget.addAndGet(startTime - System.nanoTime());
+                    }
+
+                    if (result == null) {
+                        // The worker died (or was killed) on this test case
+                        results.add(worker.hasTimedOut() ? TIMEOUT : "");
+                        break;
+                    }
+                    results.add(result);
+                }
+            } finally {
+                pool.retire(worker);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Computes how long to wait for the result of the next test case on a buggy
+     * implementation, based on both the per-test limit and the implementation's
+     * remaining budget.
+     *
+     * @param budget the remaining time, in nanoseconds, that may be spent testing the
+     *               implementation, or null if there is no limit
+     * @return the time to wait, in milliseconds; 0 to wait forever
+     */
+    private long getReceiveTimeout(AtomicLong budget) {
+        if (budget == null) {
+            return this.testTimeoutMillis;
+        }
+
+        // Round up, so that a nearly-exhausted budget still allows a short wait
+        long remaining = Math.max(1, (budget.get() + 999_999) / 1_000_000);
+        if (this.testTimeoutMillis == 0) {
+            return remaining;
+        }
+        return Math.min(this.testTimeoutMillis, remaining);
+    }
+
+    /**
+     * Waits for the given task to complete and returns its result, rethrowing any
+     * exception that it threw.
+     *
+     * @param future the task to wait for
+     * @param <T>    the type of the task's result
+     * @return the result of the task
+     * @throws IOException if the task threw an IOException
+     * @throws InterruptedException if the task was interrupted, or the thread is
+     *                              interrupted while waiting
+     */
+    private static <T> T getResult(Future<T> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            } else if (cause instanceof InterruptedException ie) {
+                throw ie;
+            } else if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(cause);
         }
-        return args;
     }
 
     /**
-     * A helper function for runTest and runExpTest which runs a Python process (using a
-     * list of arguments, as output by getTestArgs or getExpTestArgs) and reads its
-     * output.
+     * Stops the given executors, interrupting any tasks that are still running, and
+     * waits for those tasks to finish. A task that is waiting on a worker can't be
+     * interrupted, but will give up once the per-test limit runs out, so the wait is
+     * bounded by that limit (or by SHUTDOWN_GRACE_MILLIS, if there is no limit). Any
+     * task still running after that is stopped when the pool of workers is closed,
+     * since closing the pool kills the workers that are still in use.
+     *
+     * @param executors the executors to be stopped
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void shutdownAndAwait(ExecutorService... executors)
+            throws InterruptedException {
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+        long waitMillis = (this.testTimeoutMillis == 0) ? SHUTDOWN_GRACE_MILLIS
+                : this.testTimeoutMillis;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        for (ExecutorService executor : executors) {
+            executor.awaitTermination(Math.max(0, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * A helper function for computeExpectedResults which runs a Python process (using a
+     * list of arguments, as output by getExpTestArgs) and reads its output. The footer
+     * of the solution prints the result as the last line of its output, and the time the
+     * function under test took as the last line of its error output; if the latter is
+     * missing, the runtime of the whole process is used instead.
      *
      * @param args the arguments for the process to be created
-     * @return the result of reading from the process
-     * @throws IOException if the file to run or its output cannot be accessed
+     * @return a list holding the result of reading from the process, followed by the
+     * runtime in nanoseconds
+     * @throws IOException if the file to run or its output cannot be accessed, or if the
+     *                     solution crashes, prints no result, or runs out of time
      * @throws InterruptedException if the process is interrupted
      */
-    private String runTestHelper(List<String> args) throws IOException, InterruptedException {
+    private List<String> runTestHelper(List<String> args)
+            throws IOException, InterruptedException {
         ProcessBuilder pb = new ProcessBuilder();
         pb.command(args);
+        long start = System.nanoTime();
         Process process = pb.start();
 
-        // Redirect the output of the process to here
-        var sb = new StringBuilder();
-        var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        // Drain the output of the process while it runs, so that it can never block on
+        // a full pipe, keeping only the last line
+        var output = new OutputTail(process.getInputStream(), OutputTail.DEFAULT_TAIL_SIZE);
+        var errors = new OutputTail(process.getErrorStream(), 0);
+        Thread drainer = OutputTail.start(output);
+        Thread errDrainer = OutputTail.start(errors);
+
+        // Wait until the process has exited, killing it if it takes too long (or if
+        // the wait is interrupted, so that it doesn't outlive this call)
+        boolean timedOut = false;
+        try {
+            if (this.solutionTimeoutMillis == 0) {
+                process.waitFor();
+            } else if (!process.waitFor(this.solutionTimeoutMillis,
+                    TimeUnit.MILLISECONDS)) {
+                PyWorker.destroyTree(process);
+                timedOut = true;
+            }
+        } catch (InterruptedException e) {
+            PyWorker.destroyTree(process);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        drainer.join();
+        errDrainer.join();
 
-        // Wait until the process has exited
-        process.waitFor();
+        // Without a result, there's nothing to compare the buggy implementations to (and
+        // expected.py couldn't even be written), so give up
+        String testArgs = String.join(" ", args.subList(2, args.size()));
+        if (timedOut) {
+            throw new IOException("Error: solution ran out of time on " + testArgs);
+        }
+        if (process.exitValue() != 0 || output.getLastLine().isEmpty()) {
+            throw new IOException("Error: solution produced no result on " + testArgs
+                    + ": " + errors.getLastLine());
+        }
+        if (output.isLastLineCutOff()) {
+            throw new IOException("Error: solution produced a result too long to keep on "
+                    + testArgs);
+        }
 
-        // Read the output of the process, the last line of which should be the result
-        String line;
-        String prevLine = "";
-        while ((line = reader.readLine()) != null) {
-            prevLine = line;
+        // The last line of the output should be the result, and the last line of the
+        // error output should be the runtime
+        String prevLine = output.getLastLine();
+        long runtime;
+        try {
+            runtime = Long.parseLong(errors.getLastLine().trim());
+        } catch (NumberFormatException e) {
+            runtime = elapsed;
         }
-        reader.close();
 
         // Return the result
-        return prevLine;
+        return List.of(prevLine, Long.toString(runtime));
     }
 
     /**
-     * Creates a wrapper file that imports the expected results, reads the command-line
+     * Creates a wrapper file that looks up the expected results, reads the command-line
      * args, dynamically imports the buggy implementation, generates the actual results
-     * for a single test case, compares the returned value to the expected value, and then
-     * returns a boolean value (True if test passes, False otherwise).
+     * for a slice of the test cases (all of them, by default), compares each returned
+     * value to the expected value, and then prints one boolean value per test case (True
+     * if test passes, False otherwise). When invoked with --serve, the wrapper instead
+     * runs as a long-lived worker that reads batch requests from stdin and writes the
+     * results of each batch to stdout.
      *
      * @throws IOException if the wrapper file cannot be created
      */
     private void createWrapperFile() throws IOException {
         StringBuilder sb = new StringBuilder();
 
-        // Import the expected results, plus the other modules we'll need
-        sb.append("import sys\nfrom importlib import import_module\nfrom expected " +
-                "import results\n\n");
+        // Import the modules we'll need; the expected results are only imported if
+        // they're needed, since they may instead be sent along with each request
+        sb.append("import copy\nimport os\nimport signal\nimport sys\nimport types\n\n" +
+                "results = None\n\n");
 
-        // Function for comparing the buggy implementation's results to the
-        // pre-determined expected results
-        sb.append("def test_buggy_impl(case_num, impl_name, fname, args):\n");
-        sb.append("    mod_name = impl_name[:-3]\n");
-        sb.append("    mod = import_module(mod_name)\n");
+        // The limit on the CPU time of each test case, in seconds (0 for no limit), and
+        // the machinery for enforcing it. The timer signal is ignored once the test case
+        // has finished, in case it arrives late
+        sb.append("CPU_LIMIT = ").append(this.testCpuTimeoutMillis / 1000.0).append("\n");
+        sb.append("cpu_armed = False\n\n");
+        sb.append("class CpuTimeout(BaseException):\n");
+        sb.append("    pass\n\n");
+        sb.append("def on_cpu_timeout(signum, frame):\n");
+        sb.append("    if cpu_armed:\n");
+        sb.append("        raise CpuTimeout()\n\n");
+        sb.append("def call_with_cpu_limit(func, args):\n");
+        sb.append("    global cpu_armed\n");
+        sb.append("    if not CPU_LIMIT or not hasattr(signal, \"setitimer\"):\n");
+        sb.append("        return func(*args)\n");
+        sb.append("    signal.signal(signal.SIGPROF, on_cpu_timeout)\n");
+        sb.append("    cpu_armed = True\n");
+        sb.append("    signal.setitimer(signal.ITIMER_PROF, CPU_LIMIT)\n");
+        sb.append("    try:\n");
+        sb.append("        return func(*args)\n");
+        sb.append("    finally:\n");
+        sb.append("        cpu_armed = False\n");
+        sb.append("        signal.setitimer(signal.ITIMER_PROF, 0)\n\n");
+
+        // The arguments for every test case, so that test cases can be referred to by
+        // index alone
+        sb.append("cases = [\n");
+        for (TestCase test : this.tests) {
+            sb.append("    ").append(test).append(",\n");
+        }
+        sb.append("]\n\n");
+
+        // Function for loading a fresh copy of an implementation, as if it had been
+        // imported by a process of its own, so that state it keeps in its globals can't
+        // carry over from one test case to the next (state it keeps in other modules,
+        // such as the random module, still can). The file is only read and compiled once
+        // per worker; each copy just re-runs its top-level code. The copy is registered
+        // like a regular import, since some library code looks modules up by name
+        sb.append("compiled = {}\n\n");
+        sb.append("def load_impl(impl_name):\n");
+        sb.append("    code = compiled.get(impl_name)\n");
+        sb.append("    if code is None:\n");
+        sb.append("        path = os.path.join(os.path.dirname(os.path.abspath(__file__)), " +
+                "impl_name)\n");
+        sb.append("        with open(path, \"rb\") as f:\n");
+        sb.append("            code = compile(f.read(), path, \"exec\")\n");
+        sb.append("        compiled[impl_name] = code\n");
+        sb.append("    mod = types.ModuleType(impl_name[:-3])\n");
+        sb.append("    mod.__file__ = code.co_filename\n");
+        sb.append("    sys.modules[mod.__name__] = mod\n");
+        sb.append("    exec(code, mod.__dict__)\n");
+        sb.append("    return mod\n\n");
+
+        // Function for comparing the buggy implementation's results to the expected
+        // result. The arguments are copied, so that an implementation which mutates them
+        // can't affect later test cases
+        sb.append("def test_buggy_impl(case_num, impl_name, fname, expected):\n");
+        sb.append("    mod = load_impl(impl_name)\n");
         sb.append("    func = getattr(mod, fname)\n");
-        sb.append("    actual = func(*args)\n");
-        sb.append("    expected = results[case_num]\n");
+        sb.append("    actual = call_with_cpu_limit(func, copy.deepcopy(cases[case_num]))\n");
         sb.append("    return (actual == expected)\n\n");
 
-        // Footer to make the function executable from the command line
+        // Function for looking up the pre-determined expected results
+        sb.append("def load_results():\n");
+        sb.append("    global results\n");
+        sb.append("    if results is None:\n");
+        sb.append("        from expected import results\n");
+        sb.append("    return results\n\n");
+
+        // Function for running a slice of the test cases on one implementation, writing
+        // one result per line as soon as each is known. If given, payload holds the
+        // expected results of the slice beginning at base as a Python list; otherwise
+        // they're looked up in expected.py
+        sb.append("def test_batch(impl_name, fname, base, start, end, payload, out):\n");
+        sb.append("    try:\n");
+        sb.append("        expected = eval(payload) if payload else " +
+                "load_results()[base:]\n");
+        sb.append("    except BaseException:\n");
+        sb.append("        expected = None\n");
+        sb.append("    for case_num in range(start, end):\n");
+        sb.append("        try:\n");
+        sb.append("            result = test_buggy_impl(case_num, impl_name, fname, " +
+                "expected[case_num - base])\n");
+        sb.append("        except CpuTimeout:\n");
+        sb.append("            result = \"Timeout\"\n");
+        sb.append("        except BaseException:\n");
+        sb.append("            result = \"Error\"\n");
+        sb.append("        out.write(str(result) + \"\\n\")\n");
+        sb.append("        out.flush()\n\n");
+
+        // Moves the real stdin/stdout out of the way, so that buggy implementations
+        // which read or print can't corrupt the results
+        sb.append("def claim_stdio():\n");
+        sb.append("    stdin = os.fdopen(os.dup(0), \"rb\")\n");
+        sb.append("    stdout = os.fdopen(os.dup(1), \"w\")\n");
+        sb.append("    devnull = os.open(os.devnull, os.O_RDWR)\n");
+        sb.append("    os.dup2(devnull, 0)\n");
+        sb.append("    os.dup2(devnull, 1)\n");
+        sb.append("    return stdin, stdout\n\n");
+
+        // Server loop for a long-lived worker: each request is a header line of
+        // tab-separated fields (impl_name, fname, base, start, end, payload length)
+        // followed by a payload holding the expected results (if any); the response is
+        // one line per test case
+        sb.append("def serve():\n");
+        sb.append("    requests, responses = claim_stdio()\n");
+        sb.append("    while True:\n");
+        sb.append("        header = requests.readline()\n");
+        sb.append("        if not header:\n");
+        sb.append("            break\n");
+        sb.append("        impl_name, fname, base, start, end, length = " +
+                "header.decode().rstrip(\"\\n\").split(\"\\t\")\n");
+        sb.append("        payload = requests.read(int(length)).decode()\n");
+        sb.append("        test_batch(impl_name, fname, int(base), int(start), int(end), " +
+                "payload, responses)\n\n");
+
+        // Footer to make the function executable from the command line, either as a
+        // worker or for a single batch (all test cases, unless a slice is given)
         sb.append("if __name__ == \"__main__\":\n");
-        sb.append("    case_num = int(sys.argv[1])\n");
-        sb.append("    impl_name = sys.argv[2]\n");
-        sb.append("    fname = sys.argv[3]\n");
-        sb.append("    args = sys.argv[4:]\n");
-        sb.append("    args = [eval(arg) for arg in args]\n");
-        sb.append("    print (test_buggy_impl(case_num, impl_name, fname, args))");
+        sb.append("    if sys.argv[1:] == [\"--serve\"]:\n");
+        sb.append("        serve()\n");
+        sb.append("    else:\n");
+        sb.append("        impl_name = sys.argv[1]\n");
+        sb.append("        fname = sys.argv[2]\n");
+        sb.append("        start = int(sys.argv[3]) if len(sys.argv) > 3 else 0\n");
+        sb.append("        end = int(sys.argv[4]) if len(sys.argv) > 4 else len(cases)\n");
+        sb.append("        test_batch(impl_name, fname, 0, start, end, \"\", " +
+                "claim_stdio()[1])");
         String wrapperContents = sb.toString();
 
         // Create the Python wrapper file including the above code
-        FileWriter writer = new FileWriter(this.implDirPath + "/wrapper.py");
+        FileWriter writer = new FileWriter(this.implDirPath + "/wrapper.py",
+                StandardCharsets.UTF_8);
         writer.write(wrapperContents);
         writer.close();
     }
@@ -303,13 +1104,18 @@ public class Tester {
 
         // Generate the footer, which converts the command-line args from strings into
         // Python objects of the appropriate types, calls the function under test with
-        // these arguments, and prints the result
+        // these arguments, and prints the result; the time taken by the call alone is
+        // written to stderr, on a line of its own
         sb = new StringBuilder();
-        sb.append("import sys\n\n");
+        sb.append("import sys\nimport time\n\n");
         sb.append("if __name__ == \"__main__\":\n");
         sb.append("    args = sys.argv[1:]\n");
         sb.append("    new_args = [eval(arg) for arg in args]\n");
-        sb.append("    print (repr(").append(this.funcName).append("(*new_args)))");
+        sb.append("    start = time.perf_counter_ns()\n");
+        sb.append("    result = ").append(this.funcName).append("(*new_args)\n");
+        sb.append("    elapsed = time.perf_counter_ns() - start\n");
+        sb.append("    print (repr(result))\n");
+        sb.append("    sys.stderr.write(\"\\n\" + str(elapsed) + \"\\n\")");
         String textToAdd = sb.toString();
 
         if (!contents.contains("import sys")) {
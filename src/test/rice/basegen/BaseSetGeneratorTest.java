@@ -308,6 +308,217 @@ class BaseSetGeneratorTest {
                 oneArgSimpleOverlapRandVals, 3, 100, true));
     }
 
+    /**
+     * Tests that the exhaustive tests are streamed in a fixed order, in which the last
+     * argument changes fastest, and that the base set starts with them in that order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(18)
+    void testStreamExTestsOrder() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 0);
+        List<TestCase> streamed = generator.streamExTests().toList();
+        assertEquals(multipleArgsSimpleExVals, new HashSet<>(streamed));
+        assertEquals(multipleArgsSimpleExVals.size(), streamed.size());
+        assertEquals(streamed, new ArrayList<>(generator.genExTests()));
+        assertEquals(streamed, generator.genBaseSet());
+
+        // The first two arguments stay fixed while the last one cycles through its
+        // two options
+        for (int i = 0; i < streamed.size(); i += 2) {
+            List<APyObj<?>> first = streamed.get(i).getArgs();
+            List<APyObj<?>> second = streamed.get(i + 1).getArgs();
+            assertEquals(first.subList(0, 2), second.subList(0, 2));
+            assertNotEquals(first.get(2), second.get(2));
+        }
+    }
+
+    /**
+     * Tests that the exhaustive tests are generated lazily, by taking a few tests from
+     * a domain far too large to hold in memory.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(19)
+    @Timeout(10)
+    void testStreamExTestsLazy() {
+        List<Integer> domain = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            domain.add(i);
+        }
+        List<APyNode<?>> nodes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            PyIntNode node = new PyIntNode();
+            node.setExDomain(domain);
+            node.setRanDomain(domain);
+            nodes.add(node);
+        }
+
+        BaseSetGenerator generator = new BaseSetGenerator(nodes, 0);
+        List<TestCase> firstFew = generator.streamExTests().limit(3).toList();
+        assertEquals(3, firstFew.size());
+        assertEquals(3, new HashSet<>(firstFew).size());
+    }
+
+    /**
+     * Tests that the exhaustive tests are counted without generating them, and that
+     * the base set is downsampled when there are more of them than the budget.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(20)
+    void testGenBaseSetBudget() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 2);
+        assertEquals(multipleArgsSimpleExVals.size(), generator.countExTests());
+
+        // Under budget: the full base set
+        List<TestCase> full = generator.genBaseSet(100);
+        assertEquals(multipleArgsSimpleExVals.size() + 2, full.size());
+
+        // Over budget: a sample of the exhaustive tests, in index order, plus the
+        // random tests
+        List<TestCase> sampled = generator.genBaseSet(5);
+        assertEquals(5 + 2, sampled.size());
+        assertEquals(7, new HashSet<>(sampled).size());
+        List<TestCase> exSample = sampled.subList(0, 5);
+        assertTrue(multipleArgsSimpleExVals.containsAll(exSample));
+        List<TestCase> ordered = generator.streamExTests()
+                .filter(exSample::contains).toList();
+        assertEquals(ordered, exSample);
+    }
+
+    /**
+     * Tests that sampling is refused when a single parameter has more possible
+     * arguments than the budget.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testSampleExTestsOverBudget() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 0);
+        assertThrows(IllegalArgumentException.class, () -> generator.genBaseSet(2));
+    }
+
+    /**
+     * Tests that generators built with the same seed produce the same base set, and
+     * that a different seed produces a different one.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testGenBaseSetSeeded() {
+        PyIntNode intNode = new PyIntNode();
+        intNode.setExDomain(List.of(0));
+        intNode.setRanDomain(rangeList(1, 1000));
+        PyListNode<PyIntObj> listNode = new PyListNode<>(intNode);
+        listNode.setExDomain(List.of(0));
+        listNode.setRanDomain(List.of(0, 1, 2, 3));
+        List<APyNode<?>> nodes = List.of(intNode, listNode);
+
+        List<TestCase> first = new BaseSetGenerator(nodes, 50, 17).genBaseSet();
+        List<TestCase> second = new BaseSetGenerator(nodes, 50, 17).genBaseSet();
+        List<TestCase> other = new BaseSetGenerator(nodes, 50, 18).genBaseSet();
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    /**
+     * Tests that a large number of random tests is generated (in parallel batches) with
+     * exactly the requested count, without duplicating any exhaustive test, and that
+     * the result for a given seed is reproducible.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(23)
+    void testGenRandTestsLarge() {
+        PyIntNode intNode = new PyIntNode();
+        intNode.setExDomain(rangeList(0, 9));
+        intNode.setRanDomain(rangeList(0, 99));
+        PyListNode<PyIntObj> listNode = new PyListNode<>(intNode);
+        listNode.setExDomain(List.of(0, 1));
+        listNode.setRanDomain(List.of(1, 2));
+        List<APyNode<?>> nodes = List.of(intNode, listNode);
+
+        // 100 * (100 + 100^2) = 1010000 possible random tests
+        BaseSetGenerator generator = new BaseSetGenerator(nodes, 5000, 3);
+        assertEquals(1010000, generator.countRanTests());
+        Set<TestCase> exTests = generator.genExTests();
+        Set<TestCase> randTests = generator.genRandTests(exTests);
+        assertEquals(5000, randTests.size());
+        for (TestCase test : randTests) {
+            assertFalse(exTests.contains(test));
+        }
+        assertEquals(new ArrayList<>(randTests), new ArrayList<>(
+                new BaseSetGenerator(nodes, 5000, 3).genRandTests(exTests)));
+    }
+
+    /**
+     * Tests that asking for more random tests than the random domains contain is
+     * refused up front, rather than generating forever.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(24)
+    void testGenRandTestsInfeasible() {
+        PyIntNode intNode = new PyIntNode();
+        intNode.setExDomain(List.of(0));
+        intNode.setRanDomain(List.of(1, 2));
+        PySetNode<PyIntObj> setNode = new PySetNode<>(intNode);
+        setNode.setExDomain(List.of(0));
+        setNode.setRanDomain(List.of(1, 2, 3));
+        List<APyNode<?>> nodes = List.of(intNode, setNode);
+
+        // 2 * (2 + 1) = 6 possible random tests, since a set of 3 is impossible
+        assertEquals(6, new BaseSetGenerator(nodes, 6).countRanTests());
+        assertThrows(IllegalArgumentException.class,
+                () -> new BaseSetGenerator(nodes, 7).genRandTests(Set.of()));
+    }
+
+    /**
+     * Tests that when the random domains are small, the random tests are sampled
+     * without replacement from those that are not exhaustive tests; asking for exactly
+     * all of them succeeds, and asking for one more is refused rather than generating
+     * forever.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(25)
+    @Timeout(10)
+    void testGenRandTestsSmallDomain() {
+        PyIntNode intNode = new PyIntNode();
+        intNode.setExDomain(List.of(1, 2));
+        intNode.setRanDomain(List.of(1, 2, 3));
+        PyBoolNode boolNode = new PyBoolNode();
+        boolNode.setExDomain(List.of(0, 1));
+        boolNode.setRanDomain(List.of(0, 1));
+        List<APyNode<?>> nodes = List.of(intNode, boolNode);
+
+        // 3 * 2 = 6 possible random tests, of which 2 * 2 = 4 are exhaustive tests
+        Set<TestCase> exTests = new BaseSetGenerator(nodes, 0).genExTests();
+        Set<TestCase> expected = Set.of(
+                new TestCase(List.of(new PyIntObj(3), new PyBoolObj(false))),
+                new TestCase(List.of(new PyIntObj(3), new PyBoolObj(true))));
+        assertEquals(expected, new BaseSetGenerator(nodes, 2).genRandTests(exTests));
+        assertEquals(1, new BaseSetGenerator(nodes, 1).genRandTests(exTests).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> new BaseSetGenerator(nodes, 3).genRandTests(exTests));
+    }
+
+    /**
+     * Builds the list of integers in [start, end].
+     *
+     * @param start the first integer
+     * @param end   the last integer
+     * @return the integers from start to end, inclusive
+     */
+    private static List<Integer> rangeList(int start, int end) {
+        List<Integer> range = new ArrayList<>();
+        for (int i = start; i <= end; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
     /**
      * Sets up oneArgOneOption, oneArgOneOptionExVals, and oneArgOneOptionRandVals.
      */
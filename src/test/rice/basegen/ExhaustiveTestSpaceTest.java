@@ -0,0 +1,172 @@
+package test.rice.basegen;
+
+import main.rice.basegen.BaseSetGenerator;
+import main.rice.basegen.ExhaustiveTestSpace;
+import main.rice.node.*;
+import main.rice.obj.*;
+import main.rice.test.TestCase;
+import org.junit.jupiter.api.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ExhaustiveTestSpace class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ExhaustiveTestSpaceTest {
+
+    /**
+     * Nodes for generating multiple simple arguments with multiple options each.
+     */
+    private static List<APyNode<?>> multipleArgs;
+
+    /**
+     * Nodes for generating many arguments, with far too many combinations to generate.
+     */
+    private static List<APyNode<?>> manyArgs;
+
+    /**
+     * Sets up all static fields for use in the test cases.
+     */
+    @BeforeAll
+    static void setUp() {
+        PyIntNode intNode = new PyIntNode();
+        intNode.setExDomain(List.of(1, 2, 3));
+        PyStringNode strNode = new PyStringNode(Set.of('a', 'b'));
+        strNode.setExDomain(List.of(0, 1, 2));
+        PyBoolNode boolNode = new PyBoolNode();
+        boolNode.setExDomain(List.of(0, 1));
+        multipleArgs = List.of(intNode, strNode, boolNode);
+
+        List<Integer> domain = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            domain.add(i);
+        }
+        manyArgs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            PyIntNode node = new PyIntNode();
+            node.setExDomain(domain);
+            manyArgs.add(node);
+        }
+    }
+
+    /**
+     * Tests that the test cases are numbered in the same order in which they are
+     * streamed.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testGetMatchesStream() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgs, 0);
+        ExhaustiveTestSpace space = generator.genExTestSpace();
+        List<TestCase> streamed = generator.streamExTests().toList();
+
+        assertEquals(3 * 7 * 2, space.size());
+        assertEquals(streamed.size(), space.size());
+        for (int i = 0; i < streamed.size(); i++) {
+            assertEquals(streamed.get(i), space.get(i));
+        }
+        assertEquals(streamed, space.stream(0, space.size()).toList());
+        assertEquals(streamed.subList(5, 9), space.stream(5, 9).toList());
+    }
+
+    /**
+     * Tests that indexOf() is the inverse of get(), and returns -1 for test cases that
+     * are not in the space.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testIndexOf() {
+        ExhaustiveTestSpace space = new BaseSetGenerator(multipleArgs, 0).genExTestSpace();
+        for (long i = 0; i < space.size(); i++) {
+            assertEquals(i, space.indexOf(space.get(i)));
+        }
+
+        assertEquals(-1, space.indexOf(new TestCase(List.of(new PyIntObj(4),
+                new PyStringObj("a"), new PyBoolObj(true)))));
+        assertEquals(-1, space.indexOf(new TestCase(List.of(new PyIntObj(1)))));
+    }
+
+    /**
+     * Tests that test cases can be computed from their indices in a space far too large
+     * to generate.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testHugeSpace() {
+        ExhaustiveTestSpace space = new BaseSetGenerator(manyArgs, 0).genExTestSpace();
+        long size = 1_000_000_000_000_000_000L;
+        assertEquals(size, space.size());
+
+        TestCase last = space.get(size - 1);
+        assertEquals(size - 1, space.indexOf(last));
+        for (APyObj<?> arg : last.getArgs()) {
+            assertEquals(new PyIntObj(999), arg);
+        }
+
+        TestCase middle = space.get(123_456_789_012_345_678L);
+        assertEquals(123_456_789_012_345_678L, space.indexOf(middle));
+        assertThrows(IndexOutOfBoundsException.class, () -> space.get(size));
+        assertThrows(IndexOutOfBoundsException.class, () -> space.get(-1));
+    }
+
+    /**
+     * Tests that each index names the same test case in two spaces built independently
+     * from the same specifications, even when the character domain is given in a
+     * different order and the memoized values are regenerated in between; each
+     * parameter's values are listed in their canonical order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testSameIndicesAcrossInstances() {
+        ExhaustiveTestSpace first = new BaseSetGenerator(
+                buildNodes(new LinkedHashSet<>(List.of('a', 'b', 'c'))), 0).genExTestSpace();
+        APyNode.clearMemo();
+        ExhaustiveTestSpace second = new BaseSetGenerator(
+                buildNodes(new LinkedHashSet<>(List.of('c', 'a', 'b'))), 0).genExTestSpace();
+
+        assertEquals(first.size(), second.size());
+        for (long i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i), second.get(i));
+        }
+
+        // Leaves follow their domains, and strings are ordered by length and then by
+        // character
+        assertEquals(List.of(new PyIntObj(3), new PyStringObj(""), new PySetObj<>(Set.of()),
+                new PyDictObj<>(Map.of())), first.get(0).getArgs());
+        long numSets = 1 + 5 + 10 + 10;
+        long numDicts = 1 + 3 * 2 + 3 * 4;
+        long numStrings = 1 + 3 + 9;
+        assertEquals(new PyStringObj("a"), first.get(numSets * numDicts).getArgs().get(1));
+        assertEquals(new PyIntObj(1),
+                first.get(numStrings * numSets * numDicts).getArgs().get(0));
+    }
+
+    /**
+     * Helper function which builds fresh nodes for an int, a string, a set, and a dict.
+     *
+     * @param chars the character domain for the string
+     * @return a list of nodes, one per parameter
+     */
+    private static List<APyNode<?>> buildNodes(Set<Character> chars) {
+        PyIntNode intNode = new PyIntNode();
+        intNode.setExDomain(List.of(3, 1, 2));
+        PyStringNode strNode = new PyStringNode(chars);
+        strNode.setExDomain(List.of(0, 1, 2));
+        PyIntNode elemNode = new PyIntNode();
+        elemNode.setExDomain(List.of(4, 0, 3, 1, 2));
+        PySetNode<PyIntObj> setNode = new PySetNode<>(elemNode);
+        setNode.setExDomain(List.of(0, 1, 2, 3));
+        PyIntNode keyNode = new PyIntNode();
+        keyNode.setExDomain(List.of(0, 1, 2));
+        PyBoolNode valNode = new PyBoolNode();
+        valNode.setExDomain(List.of(1, 0));
+        PyDictNode<PyIntObj, PyBoolObj> dictNode = new PyDictNode<>(keyNode, valNode);
+        dictNode.setExDomain(List.of(0, 1, 2));
+        return List.of(intNode, strNode, setNode, dictNode);
+    }
+}
@@ -12,6 +12,8 @@ import org.junit.jupiter.api.*;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test cases for the ConciseSetGenerator class.
@@ -311,6 +313,348 @@ class ConciseSetGeneratorTest {
         assertEquals(expected, actual);
     }
 
+    /**
+     * Tests setCover() on files whose indices span several 64-bit words; the i-th case
+     * catches every file whose index is a multiple of (i + 1), so the greedy cover
+     * starts with case 0 (which catches everything).
+     */
+    @Test
+    @Tag("1.0")
+    @Order(12)
+    void testManyFiles() {
+        List<TestCase> allCases = generateIntegerCases(5);
+        Set<Integer> wrongSet = generateAllWrong(200);
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Set<Integer> set = new HashSet<>();
+            for (int file = 0; file < 200; file += i + 1) {
+                set.add(file);
+            }
+            caseToFiles.add(set);
+        }
+
+        TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+        assertEquals(Set.of(allCases.get(0)), ConciseSetGenerator.setCover(input));
+
+        // Without case 0, the greedy cover picks case 1 (the even files), then case 2
+        // (the odd multiples of 3), then case 4 (the remaining multiples of 5); case 3
+        // catches nothing new, and no case catches the remaining files, so it stops
+        caseToFiles.set(0, new HashSet<>());
+        input = new TestResults(allCases, caseToFiles, wrongSet);
+        assertEquals(Set.of(allCases.get(1), allCases.get(2), allCases.get(4)),
+                ConciseSetGenerator.setCover(input));
+    }
+
+    /**
+     * Tests that setCover() picks exactly the same test cases as recounting every test
+     * case every round, on many random result matrices with lots of ties.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(13)
+    void testMatchesEagerGreedy() {
+        Random rand = new Random(2022);
+        for (int trial = 0; trial < 200; trial++) {
+            int numCases = 1 + rand.nextInt(60);
+            int numFiles = 1 + rand.nextInt(150);
+            List<TestCase> allCases = generateIntegerCases(numCases);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            for (int i = 0; i < numCases; i++) {
+                Set<Integer> files = new HashSet<>();
+                int density = 1 + rand.nextInt(10);
+                for (int file = 0; file < numFiles; file++) {
+                    if (rand.nextInt(density * 4) == 0) {
+                        files.add(file);
+                    }
+                }
+                caseToFiles.add(files);
+                wrongSet.addAll(files);
+            }
+
+            TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+            assertEquals(eagerGreedy(allCases, caseToFiles, wrongSet),
+                    ConciseSetGenerator.setCover(input));
+        }
+    }
+
+    /**
+     * Tests that minimalSetCover() finds the optimal cover in the case where the greedy
+     * algorithm is sub-optimal (see testGreedyNotOptimal): cases 0-4 alone suffice.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(14)
+    void testMinimalBeatsGreedy() {
+        Set<Integer> wrongSet = generateAllWrong(10);
+        List<TestCase> allCases = generateIntegerCases(6);
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            caseToFiles.add(new HashSet<>(Set.of(i, i + 5)));
+        }
+        caseToFiles.add(new HashSet<>(Set.of(0, 1, 2, 3, 4)));
+
+        TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+        assertEquals(new HashSet<>(allCases.subList(0, 5)),
+                ConciseSetGenerator.minimalSetCover(input, 10_000));
+    }
+
+    /**
+     * Tests that minimalSetCover() finds a cover as small as the smallest one found by
+     * brute force, on many small random result matrices.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(15)
+    void testMinimalMatchesBruteForce() {
+        Random rand = new Random(2023);
+        for (int trial = 0; trial < 200; trial++) {
+            int numCases = 1 + rand.nextInt(12);
+            int numFiles = 1 + rand.nextInt(80);
+            List<TestCase> allCases = generateIntegerCases(numCases);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            for (int i = 0; i < numCases; i++) {
+                Set<Integer> files = new HashSet<>();
+                int density = 1 + rand.nextInt(6);
+                for (int file = 0; file < numFiles; file++) {
+                    if (rand.nextInt(density * 3) == 0) {
+                        files.add(file);
+                    }
+                }
+                caseToFiles.add(files);
+                wrongSet.addAll(files);
+            }
+
+            // Find the size of the smallest cover by trying every subset of the cases
+            int minSize = numCases;
+            for (int mask = 0; mask < (1 << numCases); mask++) {
+                Set<Integer> covered = new HashSet<>();
+                for (int i = 0; i < numCases; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        covered.addAll(caseToFiles.get(i));
+                    }
+                }
+                if (covered.equals(wrongSet)) {
+                    minSize = Math.min(minSize, Integer.bitCount(mask));
+                }
+            }
+
+            TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+            Set<TestCase> actual = ConciseSetGenerator.minimalSetCover(input, 10_000);
+            assertEquals(minSize, actual.size());
+            assertEquals(wrongSet, coveredBy(actual, allCases, caseToFiles));
+        }
+    }
+
+    /**
+     * Tests that minimalSetCover() still returns a cover, no larger than the greedy one,
+     * when it has no time to search.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(16)
+    void testMinimalWithoutTime() {
+        Random rand = new Random(2024);
+        int numCases = 300;
+        List<TestCase> allCases = generateIntegerCases(numCases);
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        Set<Integer> wrongSet = new HashSet<>();
+        for (int i = 0; i < numCases; i++) {
+            Set<Integer> files = new HashSet<>();
+            for (int file = 0; file < 500; file++) {
+                if (rand.nextInt(40) == 0) {
+                    files.add(file);
+                }
+            }
+            caseToFiles.add(files);
+            wrongSet.addAll(files);
+        }
+
+        TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+        Set<TestCase> actual = ConciseSetGenerator.minimalSetCover(input, 0);
+        assertEquals(wrongSet, coveredBy(actual, allCases, caseToFiles));
+        assertTrue(actual.size() <= ConciseSetGenerator.setCover(input).size());
+    }
+
+    /**
+     * Tests that setCover() still picks exactly the same test cases as recounting every
+     * test case every round when many test cases and files are duplicates of each other
+     * (so that the reduction collapses them).
+     */
+    @Test
+    @Tag("1.0")
+    @Order(17)
+    void testMatchesEagerGreedyWithDuplicates() {
+        Random rand = new Random(2025);
+        for (int trial = 0; trial < 200; trial++) {
+            // Draw a few distinct rows over a few distinct columns, then copy them
+            int numRows = 1 + rand.nextInt(8);
+            int numCols = 1 + rand.nextInt(8);
+            boolean[][] base = new boolean[numRows][numCols];
+            for (boolean[] row : base) {
+                for (int c = 0; c < numCols; c++) {
+                    row[c] = rand.nextInt(3) == 0;
+                }
+            }
+            int numCases = 1 + rand.nextInt(40);
+            int numFiles = 1 + rand.nextInt(100);
+            int[] fileToCol = new int[numFiles];
+            for (int file = 0; file < numFiles; file++) {
+                fileToCol[file] = rand.nextInt(numCols);
+            }
+
+            List<TestCase> allCases = generateIntegerCases(numCases);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            for (int i = 0; i < numCases; i++) {
+                boolean[] row = base[rand.nextInt(numRows)];
+                Set<Integer> files = new HashSet<>();
+                for (int file = 0; file < numFiles; file++) {
+                    if (row[fileToCol[file]]) {
+                        files.add(file);
+                    }
+                }
+                caseToFiles.add(files);
+                wrongSet.addAll(files);
+            }
+
+            TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+            assertEquals(eagerGreedy(allCases, caseToFiles, wrongSet),
+                    ConciseSetGenerator.setCover(input));
+        }
+    }
+
+    /**
+     * Tests that weightedSetCover() prefers several cheap test cases over one costly
+     * test case that catches everything, and that it matches setCover() when every test
+     * case costs the same.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(18)
+    void testWeightedPrefersCheap() {
+        List<TestCase> allCases = generateIntegerCases(3);
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1, 2, 3), Set.of(0, 1),
+                Set.of(2, 3));
+        TestResults input = new TestResults(allCases, caseToFiles, Set.of(0, 1, 2, 3));
+        assertEquals(Set.of(allCases.get(1), allCases.get(2)),
+                ConciseSetGenerator.weightedSetCover(input, new long[]{100, 1, 1}));
+        assertEquals(Set.of(allCases.get(0)),
+                ConciseSetGenerator.weightedSetCover(input, new long[]{5, 5, 5}));
+
+        // Unknown costs are charged the average of the known ones, making case 0 worth
+        // its cost (4 files for 3, versus 2 files for 2 or 4)
+        assertEquals(Set.of(allCases.get(0)),
+                ConciseSetGenerator.weightedSetCover(input, new long[]{-1, 2, 4}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ConciseSetGenerator.weightedSetCover(input, new long[]{1, 1}));
+    }
+
+    /**
+     * Tests that weightedSetCover() picks exactly the same test cases as recounting
+     * every test case every round, on many random result matrices with random costs
+     * (drawn from a small range, so that there are lots of ties).
+     */
+    @Test
+    @Tag("1.0")
+    @Order(19)
+    void testWeightedMatchesEagerGreedy() {
+        Random rand = new Random(2026);
+        for (int trial = 0; trial < 200; trial++) {
+            int numCases = 1 + rand.nextInt(40);
+            int numFiles = 1 + rand.nextInt(100);
+            List<TestCase> allCases = generateIntegerCases(numCases);
+            List<Set<Integer>> caseToFiles = new ArrayList<>();
+            Set<Integer> wrongSet = new HashSet<>();
+            long[] costs = new long[numCases];
+            for (int i = 0; i < numCases; i++) {
+                Set<Integer> files = new HashSet<>();
+                int density = 1 + rand.nextInt(10);
+                for (int file = 0; file < numFiles; file++) {
+                    if (rand.nextInt(density * 4) == 0) {
+                        files.add(file);
+                    }
+                }
+                caseToFiles.add(files);
+                wrongSet.addAll(files);
+                costs[i] = 1 + rand.nextInt(4);
+            }
+
+            // Recount every test case every round, comparing new files per unit of cost
+            Set<Integer> uncovered = new HashSet<>(wrongSet);
+            Set<TestCase> expected = new HashSet<>();
+            while (!uncovered.isEmpty()) {
+                int best = -1;
+                long bestCount = 0;
+                for (int i = 0; i < numCases; i++) {
+                    Set<Integer> caught = new HashSet<>(caseToFiles.get(i));
+                    caught.retainAll(uncovered);
+                    if (!caught.isEmpty()
+                            && (best == -1 || caught.size() * costs[best] > bestCount * costs[i])) {
+                        best = i;
+                        bestCount = caught.size();
+                    }
+                }
+                uncovered.removeAll(caseToFiles.get(best));
+                expected.add(allCases.get(best));
+            }
+
+            TestResults input = new TestResults(allCases, caseToFiles, wrongSet);
+            assertEquals(expected, ConciseSetGenerator.weightedSetCover(input, costs));
+        }
+    }
+
+    /**
+     * Helper function for computing the files caught by some of the test cases.
+     *
+     * @param chosen      the chosen test cases
+     * @param allCases    all of the test cases
+     * @param caseToFiles the files caught by each test case
+     * @return the files caught by at least one of the chosen test cases
+     */
+    private static Set<Integer> coveredBy(Set<TestCase> chosen, List<TestCase> allCases,
+                                          List<Set<Integer>> caseToFiles) {
+        Set<Integer> covered = new HashSet<>();
+        for (int i = 0; i < allCases.size(); i++) {
+            if (chosen.contains(allCases.get(i))) {
+                covered.addAll(caseToFiles.get(i));
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * Helper function for computing the greedy cover the straightforward way, by
+     * recounting every test case every round and picking the lowest index among ties.
+     *
+     * @param allCases    the test cases
+     * @param caseToFiles the files caught by each test case
+     * @param wrongSet    the files caught by any test case
+     * @return the test cases in the greedy cover
+     */
+    private static Set<TestCase> eagerGreedy(List<TestCase> allCases,
+                                             List<Set<Integer>> caseToFiles,
+                                             Set<Integer> wrongSet) {
+        Set<Integer> uncovered = new HashSet<>(wrongSet);
+        Set<TestCase> cover = new HashSet<>();
+        while (!uncovered.isEmpty()) {
+            int best = -1;
+            int bestCount = 0;
+            for (int i = 0; i < caseToFiles.size(); i++) {
+                Set<Integer> caught = new HashSet<>(caseToFiles.get(i));
+                caught.retainAll(uncovered);
+                if (caught.size() > bestCount) {
+                    best = i;
+                    bestCount = caught.size();
+                }
+            }
+            uncovered.removeAll(caseToFiles.get(best));
+            cover.add(allCases.get(best));
+        }
+        return cover;
+    }
+
     /**
      * Helper function which generates an allCases list containing integers from 0 to
      * numTests - 1, inclusive.
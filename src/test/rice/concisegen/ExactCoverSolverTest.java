@@ -0,0 +1,109 @@
+package test.rice.concisegen;
+
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.ExactCoverSolver;
+import main.rice.obj.APyObj;
+import main.rice.obj.PyIntObj;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ExactCoverSolver class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ExactCoverSolverTest {
+
+    /**
+     * Tests that test cases whose caught files are a subset of another test case's are
+     * dropped, keeping the lowest index among duplicates, along with test cases that
+     * catch nothing.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testDropsDominatedCases() {
+        // Files 0 and 2 are caught by every case that catches file 1, so only files 1
+        // and 3 are kept; of the cases, case 1 then catches nothing, case 2 duplicates
+        // case 0, and case 4 catches nothing at all
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1, 2), Set.of(0, 2),
+                Set.of(0, 1, 2), Set.of(3), Set.of());
+        TestResults results = new TestResults(generateIntegerCases(5), caseToFiles,
+                Set.of(0, 1, 2, 3));
+        ExactCoverSolver solver = new ExactCoverSolver(results);
+        assertEquals(2, solver.getNumFiles());
+        assertEquals(2, solver.getNumCases());
+        assertEquals(List.of(0, 3), solver.solve(1_000));
+        assertTrue(solver.isOptimal());
+    }
+
+    /**
+     * Tests that files whose catching test cases are a superset of another file's are
+     * dropped, along with files that are correct or that no test case catches.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testDropsDominatedFiles() {
+        // File 0 is caught by every case that catches file 1 (and more), so catching file
+        // 1 catches file 0 too; file 3 is caught but is not wrong, and file 4 is wrong but
+        // is not caught
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1), Set.of(0, 2),
+                Set.of(0, 1, 3));
+        TestResults results = new TestResults(generateIntegerCases(3), caseToFiles,
+                Set.of(0, 1, 2, 4));
+        ExactCoverSolver solver = new ExactCoverSolver(results);
+        assertEquals(2, solver.getNumFiles());
+        assertEquals(List.of(0, 1), solver.solve(1_000));
+    }
+
+    /**
+     * Tests that isOptimal() is false until solve() has been called.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testNotOptimalBeforeSolving() {
+        TestResults results = new TestResults(generateIntegerCases(1),
+                List.of(Set.of(0)), Set.of(0));
+        assertFalse(new ExactCoverSolver(results).isOptimal());
+    }
+
+    /**
+     * Tests that the search improves on the greedy cover it starts from, when the greedy
+     * algorithm is misled by a test case that catches the most files but belongs to no
+     * minimal cover.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testBeatsGreedyCover() {
+        List<TestCase> allCases = generateIntegerCases(3);
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1, 2), Set.of(3, 4, 5),
+                Set.of(1, 2, 3, 4));
+        TestResults results = new TestResults(allCases, caseToFiles,
+                Set.of(0, 1, 2, 3, 4, 5));
+        assertEquals(3, ConciseSetGenerator.setCover(results).size());
+        assertEquals(List.of(0, 1), new ExactCoverSolver(results).solve(1_000));
+    }
+
+    /**
+     * Helper function which generates an allCases list containing integers from 0 to
+     * numTests - 1, inclusive.
+     *
+     * @param numTests the number of tests to generate
+     * @return a list of test cases, each consisting of a single integer
+     */
+    private static List<TestCase> generateIntegerCases(int numTests) {
+        List<TestCase> allCases = new ArrayList<>();
+        for (int i = 0; i < numTests; i++) {
+            List<APyObj<?>> elem = Collections.singletonList(new PyIntObj(i));
+            allCases.add(new TestCase(elem));
+        }
+        return allCases;
+    }
+}
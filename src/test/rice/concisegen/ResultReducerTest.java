@@ -0,0 +1,154 @@
+package test.rice.concisegen;
+
+import main.rice.concisegen.ResultReducer;
+import main.rice.obj.APyObj;
+import main.rice.obj.PyIntObj;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ResultReducer class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ResultReducerTest {
+
+    /**
+     * Tests that files caught by exactly the same test cases are collapsed into one file
+     * whose weight is the size of the group, numbered in order of first appearance.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testCollapsesFiles() {
+        // Files 0, 2, and 4 are caught by cases 0 and 1; files 1 and 3 by case 1 only;
+        // file 5 is wrong but caught by nothing
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 2, 4), Set.of(0, 1, 2, 3, 4));
+        TestResults results = new TestResults(generateIntegerCases(2), caseToFiles,
+                Set.of(0, 1, 2, 3, 4, 5));
+        ResultReducer reducer = new ResultReducer(results);
+        TestResults reduced = reducer.getReduced();
+
+        assertArrayEquals(new int[]{3, 2, 1}, reducer.getFileWeights());
+        assertEquals(Set.of(0, 1, 2), reduced.getWrongSet());
+        assertEquals(List.of(Set.of(0), Set.of(0, 1)), reduced.getCaseToFiles());
+    }
+
+    /**
+     * Tests that test cases that catch nothing, duplicate an earlier test case, or catch
+     * a subset of what an earlier test case catches are dropped, while a test case that
+     * catches a subset of what a later test case catches is kept; the kept test cases
+     * are the original objects, in their original order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testDropsDominatedCases() {
+        List<TestCase> allCases = generateIntegerCases(6);
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0), Set.of(0, 1), Set.of(),
+                Set.of(0, 1), Set.of(1), Set.of(1, 2));
+        TestResults results = new TestResults(allCases, caseToFiles, Set.of(0, 1, 2));
+        ResultReducer reducer = new ResultReducer(results);
+        TestResults reduced = reducer.getReduced();
+
+        assertEquals(3, reduced.getCaseToFiles().size());
+        assertEquals(0, reducer.getOriginalIndex(0));
+        assertEquals(1, reducer.getOriginalIndex(1));
+        assertEquals(5, reducer.getOriginalIndex(2));
+        assertSame(allCases.get(5), reduced.getTestCase(2));
+    }
+
+    /**
+     * Tests that timeouts are carried over onto the collapsed files.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testMapsTimeouts() {
+        // Files 0 and 1 collapse into file 0, file 2 becomes file 1, and file 3 becomes
+        // file 2
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1, 2), Set.of(2, 3));
+        List<Set<Integer>> caseToTimeouts = List.of(Set.of(1), Set.of(3));
+        TestResults results = new TestResults(generateIntegerCases(2), caseToFiles,
+                Set.of(0, 1, 2, 3), caseToTimeouts);
+        TestResults reduced = new ResultReducer(results).getReduced();
+        assertEquals(List.of(Set.of(0), Set.of(2)), reduced.getCaseToTimeouts());
+    }
+
+    /**
+     * Tests that results with lots of duplication shrink by the expected factor: 200
+     * test cases that fall into 10 distinct rows, over 300 files that fall into 10
+     * distinct columns.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testShrinksDuplicates() {
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        Set<Integer> wrongSet = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            Set<Integer> files = new HashSet<>();
+            for (int file = 0; file < 300; file++) {
+                if (file % 10 == i % 10) {
+                    files.add(file);
+                }
+            }
+            caseToFiles.add(files);
+            wrongSet.addAll(files);
+        }
+        TestResults results = new TestResults(generateIntegerCases(200), caseToFiles,
+                wrongSet);
+        ResultReducer reducer = new ResultReducer(results);
+
+        assertEquals(10, reducer.getReduced().getCaseToFiles().size());
+        assertEquals(10, reducer.getFileWeights().length);
+        for (int weight : reducer.getFileWeights()) {
+            assertEquals(30, weight);
+        }
+    }
+
+    /**
+     * Tests that, with costs, a test case is only dropped in favor of one that is no
+     * more costly: the cheapest of identical test cases is kept, and a cheap test case is
+     * kept even if a costly one catches everything it does.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testDropsByCost() {
+        List<Set<Integer>> caseToFiles = List.of(Set.of(0, 1), Set.of(0), Set.of(0, 1),
+                Set.of(1), Set.of(1));
+        TestResults results = new TestResults(generateIntegerCases(5), caseToFiles,
+                Set.of(0, 1));
+
+        // Case 2 duplicates case 0 more cheaply; case 1 is cheaper than case 2, so it
+        // stays; case 3 is dropped, since case 2 catches more for the same cost; case 4
+        // is dropped, since it duplicates case 3
+        ResultReducer reducer = new ResultReducer(results, new long[]{9, 1, 3, 3, 3});
+        assertEquals(2, reducer.getReduced().getCaseToFiles().size());
+        assertEquals(1, reducer.getOriginalIndex(0));
+        assertEquals(2, reducer.getOriginalIndex(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ResultReducer(results, new long[]{1}));
+    }
+
+    /**
+     * Helper function which generates an allCases list containing integers from 0 to
+     * numTests - 1, inclusive.
+     *
+     * @param numTests the number of tests to generate
+     * @return a list of test cases, each consisting of a single integer
+     */
+    private static List<TestCase> generateIntegerCases(int numTests) {
+        List<TestCase> allCases = new ArrayList<>();
+        for (int i = 0; i < numTests; i++) {
+            List<APyObj<?>> elem = Collections.singletonList(new PyIntObj(i));
+            allCases.add(new TestCase(elem));
+        }
+        return allCases;
+    }
+}
@@ -4,13 +4,13 @@ import main.rice.node.PyBoolNode;
 import main.rice.node.PyDictNode;
 import main.rice.node.PyFloatNode;
 import main.rice.node.PyIntNode;
+import main.rice.node.PyListNode;
 import main.rice.obj.*;
 import org.junit.jupiter.api.*;
 
 import java.util.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Test cases for the PyDictNode class.
@@ -468,6 +468,209 @@ class PyDictNodeTest extends APyNodeTest {
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
 
+    /**
+     * Tests that genExVals() generates each dictionary of each requested length exactly
+     * once, and skips lengths longer than the number of keys.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testGenExValsCounts() {
+        PyIntNode keyNode = new PyIntNode();
+        keyNode.setExDomain(List.of(1, 2, 3, 4, 5));
+        PyIntNode valNode = new PyIntNode();
+        valNode.setExDomain(List.of(-1, 0, 1));
+        PyDictNode<PyIntObj, PyIntObj> node = new PyDictNode<>(keyNode, valNode);
+
+        // 1 empty dict, C(5, 2) * 3^2 dicts of length two, and C(5, 3) * 3^3 dicts of
+        // length three
+        node.setExDomain(List.of(0, 2, 3, 6));
+        Set<PyDictObj<PyIntObj, PyIntObj>> dicts = node.genExVals();
+        assertEquals(1 + 10 * 9 + 10 * 27, dicts.size());
+        assertEquals(1 + 10 * 9 + 10 * 27, node.countExVals());
+        for (PyDictObj<PyIntObj, PyIntObj> dict : dicts) {
+            assertTrue(List.of(0, 2, 3).contains(dict.getValue().size()));
+        }
+    }
+
+    /**
+     * Tests that identical subtrees share the same (unmodifiable) exhaustive values,
+     * while subtrees with different domains do not.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testGenExValsMemoized() {
+        PyDictNode<PyListObj<PyIntObj>, PyListObj<PyIntObj>> node = new PyDictNode<>(
+                newIntListNode(List.of(0, 1, 2)), newIntListNode(List.of(0, 1, 2)));
+        node.setExDomain(List.of(0, 1));
+        assertEquals(node.getLeftChild().getExSignature(),
+                node.getRightChild().getExSignature());
+        assertSame(node.getLeftChild().genExVals(), node.getRightChild().genExVals());
+        assertEquals(1 + 13 * 13, node.genExVals().size());
+        assertThrows(UnsupportedOperationException.class, () -> node.genExVals().clear());
+
+        // Changing a domain changes the signature, and therefore the values
+        PyDictNode<PyListObj<PyIntObj>, PyListObj<PyIntObj>> other = new PyDictNode<>(
+                newIntListNode(List.of(0, 1, 2)), newIntListNode(List.of(0, 1)));
+        other.setExDomain(List.of(0, 1));
+        assertNotEquals(other.getLeftChild().getExSignature(),
+                other.getRightChild().getExSignature());
+        assertEquals(1 + 13 * 4, other.genExVals().size());
+    }
+
+    /**
+     * Tests that generating a large dict domain (which is done in parallel) generates
+     * each dictionary exactly once.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(23)
+    void testGenExValsLarge() {
+        PyIntNode keyNode = new PyIntNode();
+        keyNode.setExDomain(List.of(0, 1, 2, 3, 4, 5, 6, 7));
+        PyIntNode valNode = new PyIntNode();
+        valNode.setExDomain(List.of(10, 11, 12, 13));
+        PyDictNode<PyIntObj, PyIntObj> node = new PyDictNode<>(keyNode, valNode);
+        node.setExDomain(List.of(4));
+
+        // C(8, 4) * 4^4 dictionaries, each with four keys from 0 to 7
+        Set<PyDictObj<PyIntObj, PyIntObj>> dicts = node.genExVals();
+        assertEquals(70 * 256, dicts.size());
+        for (PyDictObj<PyIntObj, PyIntObj> dict : dicts) {
+            assertEquals(4, dict.getValue().size());
+            for (PyIntObj key : dict.getValue().keySet()) {
+                assertTrue(key.getValue() >= 0 && key.getValue() < 8);
+            }
+        }
+    }
+
+    /**
+     * Creates a node for lists of integers from 0 to 2.
+     *
+     * @param lengths the exhaustive domain of the lists
+     * @return the new node
+     */
+    private static PyListNode<PyIntObj> newIntListNode(List<Integer> lengths) {
+        PyIntNode child = new PyIntNode();
+        child.setExDomain(List.of(0, 1, 2));
+        PyListNode<PyIntObj> node = new PyListNode<>(child);
+        node.setExDomain(lengths);
+        return node;
+    }
+
+    /**
+     * Tests that genRandVal() never picks a size larger than the number of distinct keys
+     * (which could never be filled), and that a size using every key is filled directly.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(24)
+    void testGenRandValFeasibleSizes() {
+        PyBoolNode keys = new PyBoolNode();
+        keys.setRanDomain(List.of(0, 1));
+        PyIntNode vals = new PyIntNode();
+        vals.setRanDomain(List.of(5, 6, 7));
+        PyDictNode<PyBoolObj, PyIntObj> node = new PyDictNode<>(keys, vals);
+        node.setRanDomain(List.of(2, 3, 50));
+
+        for (int i = 0; i < 100; i++) {
+            Map<PyBoolObj, PyIntObj> map = node.genRandVal().getValue();
+            assertEquals(Set.of(new PyBoolObj(false), new PyBoolObj(true)), map.keySet());
+        }
+        assertEquals(3 * 3, node.countRanVals());
+        assertEquals(3 * 3, node.genRanVals().size());
+    }
+
+    /**
+     * Tests that the cached count of the random domain (which genRandVal() relies on) is
+     * updated when the domain of a child changes after it has been counted.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(26)
+    void testCountRanValsAfterChildChanges() {
+        PyIntNode keys = new PyIntNode();
+        keys.setRanDomain(List.of(0, 1));
+        PyIntNode vals = new PyIntNode();
+        vals.setRanDomain(List.of(5));
+        PyDictNode<PyIntObj, PyIntObj> node = new PyDictNode<>(keys, vals);
+        node.setRanDomain(List.of(2));
+        assertEquals(1, node.countRanVals());
+        assertEquals(Map.of(new PyIntObj(0), new PyIntObj(5), new PyIntObj(1),
+                new PyIntObj(5)), node.genRandVal().getValue());
+
+        keys.setRanDomain(List.of(0, 1, 2));
+        vals.setRanDomain(List.of(5, 6));
+        assertEquals(3 * 2 * 2, node.countRanVals());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, node.genRandVal().getValue().size());
+        }
+    }
+
+    /**
+     * Tests that generating a dictionary domain large enough to be done in parallel puts
+     * the dictionaries in a fixed order (by size, then by combination of keys, then by
+     * assignment of values, following the order of the children's values), rather than
+     * merely producing the right dictionaries.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(25)
+    void testGenExValsLargeOrder() {
+        PyIntNode keys = new PyIntNode();
+        keys.setExDomain(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        PyIntNode vals = new PyIntNode();
+        vals.setExDomain(List.of(20, 21, 22, 23, 24));
+        PyDictNode<PyIntObj, PyIntObj> node = new PyDictNode<>(keys, vals);
+        node.setExDomain(List.of(0, 1, 2, 3));
+
+        List<PyIntObj> keyList = new ArrayList<>(keys.genExVals());
+        List<PyIntObj> valList = new ArrayList<>(vals.genExVals());
+        List<PyDictObj<PyIntObj, PyIntObj>> expected = new ArrayList<>();
+        expected.add(new PyDictObj<>(new HashMap<>()));
+        for (int size = 1; size <= 3; size++) {
+            addDicts(keyList, valList, new ArrayList<>(), 0, size, expected);
+        }
+
+        assertTrue(expected.size() >= 10_000);
+        assertEquals(expected, new ArrayList<>(node.genExVals()));
+    }
+
+    /**
+     * Helper function for testGenExValsLargeOrder; appends every dictionary with the given
+     * number of keys that extends the given partial choice of keys, in order.
+     *
+     * @param keyList  the keys, in order
+     * @param valList  the values, in order
+     * @param chosen   the indices of the keys chosen so far
+     * @param next     the lowest index of a key that may be chosen next
+     * @param size     the number of keys in each dictionary
+     * @param expected the list to which the dictionaries are appended
+     */
+    private static void addDicts(List<PyIntObj> keyList, List<PyIntObj> valList,
+                                 List<Integer> chosen, int next, int size,
+                                 List<PyDictObj<PyIntObj, PyIntObj>> expected) {
+        if (chosen.size() < size) {
+            for (int key = next; key < keyList.size(); key++) {
+                chosen.add(key);
+                addDicts(keyList, valList, chosen, key + 1, size, expected);
+                chosen.remove(chosen.size() - 1);
+            }
+            return;
+        }
+
+        // Count in base valList.size() over the chosen keys, last key fastest
+        int numAssignments = (int) Math.pow(valList.size(), size);
+        for (int i = 0; i < numAssignments; i++) {
+            Map<PyIntObj, PyIntObj> map = new HashMap<>();
+            for (int pos = size - 1, rest = i; pos >= 0; pos--, rest /= valList.size()) {
+                map.put(keyList.get(chosen.get(pos)), valList.get(rest % valList.size()));
+            }
+            expected.add(new PyDictObj<>(map));
+        }
+    }
+
     /**
      * Sets up emptyOnly and oneLenOne.
      */
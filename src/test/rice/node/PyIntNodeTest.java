@@ -179,4 +179,33 @@ class PyIntNodeTest extends APyNodeTest {
         }
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that genRandVal() produces the same sequence of values after the node is
+     * re-seeded with the same seed, and when drawing from RNGs with the same seed.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(11)
+    void testGenRandValSeeded() {
+        multipleVals.setSeed(42);
+        List<PyIntObj> first = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            first.add(multipleVals.genRandVal());
+        }
+
+        multipleVals.setSeed(42);
+        List<PyIntObj> second = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            second.add(multipleVals.genRandVal());
+        }
+        assertEquals(first, second);
+
+        SplittableRandom rand = new SplittableRandom(42);
+        List<PyIntObj> third = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            third.add(multipleVals.genRandVal(rand));
+        }
+        assertEquals(first, third);
+    }
+}
@@ -1,5 +1,7 @@
 package test.rice.node;
 
+import main.rice.node.PyIntNode;
+import main.rice.node.PyListNode;
 import main.rice.obj.PyBoolObj;
 import main.rice.obj.PyFloatObj;
 import main.rice.obj.PyIntObj;
@@ -310,4 +312,44 @@ class PyListNodeTest extends AIterablePyNodeTest {
         // Compare the actual and expected distributions
         assertTrue(compareDistribution(expectedRandNested, actual, 0.01));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that genExVals() generates each list of each requested length exactly once,
+     * for a domain with many long lists and a gap between its lengths.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testGenExValsManyLong() {
+        PyIntNode child = new PyIntNode();
+        child.setExDomain(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        PyListNode<PyIntObj> node = new PyListNode<>(child);
+        node.setExDomain(List.of(0, 5));
+
+        Set<PyListObj<PyIntObj>> lists = node.genExVals();
+        assertEquals(1 + 100000, lists.size());
+        assertEquals(1 + 100000, node.countExVals());
+        for (PyListObj<PyIntObj> list : lists) {
+            assertTrue(list.getValue().size() == 0 || list.getValue().size() == 5);
+        }
+    }
+
+    /**
+     * Tests that countExVals() counts duplicate domain values once, and saturates
+     * rather than overflowing.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testCountExValsSaturates() {
+        PyIntNode child = new PyIntNode();
+        child.setExDomain(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 9));
+        assertEquals(10, child.countExVals());
+
+        PyListNode<PyIntObj> node = new PyListNode<>(child);
+        node.setExDomain(List.of(2, 2, 30));
+        assertEquals(Long.MAX_VALUE, node.countExVals());
+        node.setExDomain(List.of(2, 2, 3));
+        assertEquals(100 + 1000, node.countExVals());
+    }
+}
@@ -462,6 +462,68 @@ class PySetNodeTest extends APyNodeTest {
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
 
+    /**
+     * Tests genExVals() on a domain whose sets are too long to generate by permuting
+     * their elements, and on lengths longer than the number of possible elements.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    @Timeout(10)
+    void testGenExValsCombinations() {
+        PyIntNode child = new PyIntNode();
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            elements.add(i);
+        }
+        child.setExDomain(elements);
+        PySetNode<PyIntObj> node = new PySetNode<>(child);
+
+        // C(16, 8) sets, each with eight elements
+        node.setExDomain(List.of(8));
+        Set<PySetObj<PyIntObj>> sets = node.genExVals();
+        assertEquals(12870, sets.size());
+        assertEquals(12870, node.countExVals());
+        for (PySetObj<PyIntObj> set : sets) {
+            assertEquals(8, set.getValue().size());
+        }
+
+        // Lengths longer than the number of elements can't be generated
+        child.setExDomain(List.of(1, 2, 3, 4));
+        node.setExDomain(List.of(0, 2, 25));
+        assertEquals(1 + 6, node.genExVals().size());
+        assertEquals(1 + 6, node.countExVals());
+    }
+
+    /**
+     * Tests that genRandVal() never picks a length longer than the number of distinct
+     * elements (which could never be filled), and that a length using every element
+     * is filled directly; also tests genRanVals() against countRanVals().
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    @Timeout(10)
+    void testGenRandValFeasibleLengths() {
+        PyIntNode child = new PyIntNode();
+        child.setRanDomain(List.of(1, 2, 3, 3));
+        PySetNode<PyIntObj> node = new PySetNode<>(child);
+        node.setRanDomain(List.of(3, 7));
+
+        PySetObj<PyIntObj> all = new PySetObj<>(Set.of(new PyIntObj(1), new PyIntObj(2),
+                new PyIntObj(3)));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(all, node.genRandVal());
+        }
+
+        node.setRanDomain(List.of(0, 2, 7));
+        assertEquals(1 + 3, node.countRanVals());
+        assertEquals(1 + 3, node.genRanVals().size());
+
+        node.setRanDomain(List.of(4, 7));
+        assertThrows(IllegalStateException.class, node::genRandVal);
+    }
+
     /**
      * Sets up emptyOnly.
      */
@@ -360,4 +360,82 @@ class PyStringNodeTest extends APyNodeTest {
         // Compare the actual and expected distributions
         assertTrue(compareDistribution(expected, actual, 0.005));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the character domain is part of the signature, so that string nodes
+     * with the same lengths but different characters don't share exhaustive values.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(17)
+    void testGenExValsMemoizedByChars() {
+        PyStringNode ab = new PyStringNode(Set.of('a', 'b'));
+        ab.setExDomain(List.of(1));
+        PyStringNode ba = new PyStringNode(Set.of('b', 'a'));
+        ba.setExDomain(List.of(1));
+        PyStringNode xy = new PyStringNode(Set.of('x', 'y'));
+        xy.setExDomain(List.of(1));
+
+        assertSame(ab.genExVals(), ba.genExVals());
+        assertNotEquals(ab.getExSignature(), xy.getExSignature());
+        assertEquals(Set.of(new PyStringObj("x"), new PyStringObj("y")), xy.genExVals());
+    }
+
+    /**
+     * Tests that generating a large string domain (which is done in parallel) gives
+     * exactly the expected strings.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(18)
+    void testGenExValsLarge() {
+        PyStringNode node = new PyStringNode(Set.of('a', 'b', 'c', 'd', 'e'));
+        node.setExDomain(List.of(1, 6));
+
+        // Build every string of length one or six by counting in base five
+        Set<PyStringObj> expected = new HashSet<>();
+        String chars = "abcde";
+        for (int i = 0; i < 5; i++) {
+            expected.add(new PyStringObj(chars.substring(i, i + 1)));
+        }
+        for (int i = 0; i < 15625; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int digit = 0, rest = i; digit < 6; digit++, rest /= 5) {
+                sb.append(chars.charAt(rest % 5));
+            }
+            expected.add(new PyStringObj(sb.toString()));
+        }
+
+        assertEquals(expected, node.genExVals());
+    }
+
+    /**
+     * Tests that generating a string domain large enough to be done in parallel puts the
+     * strings in a fixed order (by length, then in odometer order over the characters),
+     * rather than merely producing the right strings.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(19)
+    void testGenExValsLargeOrder() {
+        PyStringNode node = new PyStringNode(
+                Set.of('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j'));
+        node.setExDomain(List.of(0, 1, 2, 3, 4));
+
+        // Count in base ten for each length, most significant digit first
+        List<PyStringObj> expected = new ArrayList<>();
+        String chars = "abcdefghij";
+        for (int length = 0, numStrings = 1; length <= 4; length++, numStrings *= 10) {
+            for (int i = 0; i < numStrings; i++) {
+                char[] digits = new char[length];
+                for (int digit = length - 1, rest = i; digit >= 0; digit--, rest /= 10) {
+                    digits[digit] = chars.charAt(rest % 10);
+                }
+                expected.add(new PyStringObj(new String(digits)));
+            }
+        }
+
+        assertEquals(11111, expected.size());
+        assertEquals(expected, new ArrayList<>(node.genExVals()));
+    }
+}
@@ -256,6 +256,19 @@ class PyListObjTest {
         assertNotEquals(nestedList.hashCode(), nonEmptyFloatList.hashCode());
     }
 
+    /**
+     * Tests that the string representation is cached, and that the value of a list
+     * can't be modified once it's been constructed.
+     */
+    @Test
+    @Tag("0.3")
+    @Order(15)
+    void testImmutable() {
+        assertSame(nestedList.toString(), nestedList.toString());
+        assertThrows(UnsupportedOperationException.class,
+                () -> nonEmptyFloatList.getValue().clear());
+    }
+
     /**
      * Sets up and returns value that will be used for nestedVal and nestedVal2.
      *
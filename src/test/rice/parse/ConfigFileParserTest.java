@@ -1016,6 +1016,152 @@ class ConfigFileParserTest {
                 assertTrue(correctDomains(retval.getNodes(), nestedDictNodes, true));
         }
 
+        /**
+         * Tests that the optional exhaustive budget is parsed, and defaults to no limit.
+         */
+        @Test
+        @Order(68)
+        void testParseExBudget() throws InvalidConfigException {
+                String config = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4"
+                        + ",\n\t\"exhaustive budget\": 10000000000"
+                        + "\n}";
+                assertEquals(10000000000L, ConfigFileParser.parse(config).getExBudget());
+                assertEquals(Long.MAX_VALUE, ConfigFileParser.parse(multipleSimpleConfig)
+                        .getExBudget());
+        }
+
+        /**
+         * Tests case where the exhaustive budget is negative or not an integer; should
+         * throw an InvalidConfigException.
+         */
+        @Test
+        @Order(69)
+        void testInvalidExBudget() {
+                String base = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4";
+                invalidConfigHelper(base + ",\n\t\"exhaustive budget\": -1\n}");
+                invalidConfigHelper(base + ",\n\t\"exhaustive budget\": 1.5\n}");
+                invalidConfigHelper(base + ",\n\t\"exhaustive budget\": \"10\"\n}");
+        }
+
+        /**
+         * Tests parsing of the optional seed; should be null when it is absent, and
+         * should reject a seed that is not an integer.
+         */
+        @Test
+        @Order(70)
+        void testParseSeed() throws InvalidConfigException {
+                String base = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4";
+                assertEquals(-12345678901L,
+                        ConfigFileParser.parse(base + ",\n\t\"seed\": -12345678901\n}").getSeed());
+                assertNull(ConfigFileParser.parse(multipleSimpleConfig).getSeed());
+                invalidConfigHelper(base + ",\n\t\"seed\": 1.5\n}");
+                invalidConfigHelper(base + ",\n\t\"seed\": \"10\"\n}");
+        }
+
+        /**
+         * Tests parsing of the optional solver budget; should be null when it is absent,
+         * and should reject a budget that is negative or not an integer.
+         */
+        @Test
+        @Order(71)
+        void testParseSolverBudget() throws InvalidConfigException {
+                String base = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4";
+                assertEquals(2500L, ConfigFileParser.parse(
+                        base + ",\n\t\"solver budget\": 2500\n}").getSolverBudget());
+                assertNull(ConfigFileParser.parse(multipleSimpleConfig).getSolverBudget());
+                invalidConfigHelper(base + ",\n\t\"solver budget\": -1\n}");
+                invalidConfigHelper(base + ",\n\t\"solver budget\": 1.5\n}");
+                invalidConfigHelper(base + ",\n\t\"solver budget\": \"10\"\n}");
+        }
+
+        /**
+         * Tests parsing of the optional choice to weight test cases by cost; should be
+         * false when it is absent, and should reject a value that is not a boolean or
+         * that is combined with a solver budget.
+         */
+        @Test
+        @Order(72)
+        void testParseWeightByCost() throws InvalidConfigException {
+                String base = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4";
+                assertTrue(ConfigFileParser.parse(
+                        base + ",\n\t\"weight by cost\": true\n}").getWeightByCost());
+                assertFalse(ConfigFileParser.parse(multipleSimpleConfig).getWeightByCost());
+                invalidConfigHelper(base + ",\n\t\"weight by cost\": 1\n}");
+                invalidConfigHelper(base + ",\n\t\"weight by cost\": true"
+                        + ",\n\t\"solver budget\": 100\n}");
+        }
+
+        /**
+         * Tests parsing of the optional time limits; each should be null when it is
+         * absent, and should reject a limit that is negative or not an integer.
+         */
+        @Test
+        @Order(73)
+        void testParseTimeouts() throws InvalidConfigException {
+                String base = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4";
+                ConfigFile retval = ConfigFileParser.parse(base
+                        + ",\n\t\"test timeout\": 500"
+                        + ",\n\t\"cpu timeout\": 200"
+                        + ",\n\t\"impl timeout\": 0"
+                        + ",\n\t\"solution timeout\": 60000\n}");
+                assertEquals(500L, retval.getTestTimeout());
+                assertEquals(200L, retval.getCpuTimeout());
+                assertEquals(0L, retval.getImplTimeout());
+                assertEquals(60000L, retval.getSolutionTimeout());
+
+                ConfigFile defaults = ConfigFileParser.parse(multipleSimpleConfig);
+                assertNull(defaults.getTestTimeout());
+                assertNull(defaults.getCpuTimeout());
+                assertNull(defaults.getImplTimeout());
+                assertNull(defaults.getSolutionTimeout());
+                invalidConfigHelper(base + ",\n\t\"test timeout\": -1\n}");
+                invalidConfigHelper(base + ",\n\t\"cpu timeout\": 1.5\n}");
+                invalidConfigHelper(base + ",\n\t\"solution timeout\": \"10\"\n}");
+        }
+
+        /**
+         * Tests parsing of the optional cache directory; should be null (no caching)
+         * when it is absent, and should reject a value that is not a non-empty string.
+         */
+        @Test
+        @Order(74)
+        void testParseCacheDir() throws InvalidConfigException {
+                String base = "{\n\t\"fname\": \"func\""
+                        + ",\n\t\"types\": [\"int\"]"
+                        + ",\n\t\"exhaustive domain\": [\"0~1\"]"
+                        + ",\n\t\"random domain\": [\"3~5\"]"
+                        + ",\n\t\"num random\": 4";
+                assertEquals("/tmp/feat_cache", ConfigFileParser.parse(
+                        base + ",\n\t\"cache dir\": \"/tmp/feat_cache\"\n}").getCacheDir());
+                assertNull(ConfigFileParser.parse(multipleSimpleConfig).getCacheDir());
+                invalidConfigHelper(base + ",\n\t\"cache dir\": 1\n}");
+                invalidConfigHelper(base + ",\n\t\"cache dir\": \"\"\n}");
+        }
+
         /**
          * Helper function for building a ConfigFile object.
          *
@@ -4,7 +4,7 @@ import main.rice.node.*;
 import main.rice.parse.ConfigFile;
 import org.junit.jupiter.api.*;
 import java.util.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Test cases for the ConfigFile class.
@@ -45,4 +45,26 @@ class ConfigFileTest {
         List<APyNode<?>> nodes = List.of(node1, node2);
         assertEquals(new ArrayList<>(nodes), new ConfigFile(null, nodes, 0).getNodes());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the optional settings of the ConfigFile class have the expected
+     * defaults, and can be set afterwards.
+     */
+    @Test
+    void testOptionalSettings() {
+        ConfigFile configFile = new ConfigFile("test", null, 0);
+        assertEquals(Long.MAX_VALUE, configFile.getExBudget());
+        assertNull(configFile.getSeed());
+        assertNull(configFile.getSolverBudget());
+        assertFalse(configFile.getWeightByCost());
+
+        configFile.setExBudget(100);
+        configFile.setSeed(42L);
+        configFile.setSolverBudget(2500L);
+        configFile.setWeightByCost(true);
+        assertEquals(100, configFile.getExBudget());
+        assertEquals(42L, configFile.getSeed());
+        assertEquals(2500L, configFile.getSolverBudget());
+        assertTrue(configFile.getWeightByCost());
+    }
+}
@@ -0,0 +1,107 @@
+package test.rice.test;
+
+import main.rice.test.IndexSet;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the IndexSet class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class IndexSetTest {
+
+    /**
+     * Tests that an IndexSet holds exactly the packed elements, across word boundaries,
+     * and that it is equal to a HashSet with the same elements.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testRoundTrip() {
+        Set<Integer> elements = Set.of(0, 1, 63, 64, 65, 127, 128, 200);
+        int numWords = IndexSet.numWords(201);
+        assertEquals(4, numWords);
+
+        IndexSet set = new IndexSet(IndexSet.toWords(elements, numWords));
+        assertEquals(elements.size(), set.size());
+        assertEquals(new HashSet<>(elements), set);
+        assertEquals(set, new HashSet<>(elements));
+        assertEquals(new HashSet<>(elements).hashCode(), set.hashCode());
+
+        // Iteration is in ascending order
+        List<Integer> sorted = new ArrayList<>(elements);
+        Collections.sort(sorted);
+        assertEquals(sorted, new ArrayList<>(set));
+
+        assertFalse(set.contains(2));
+        assertFalse(set.contains(-1));
+        assertFalse(set.contains(256));
+        assertFalse(set.contains("0"));
+    }
+
+    /**
+     * Tests IndexSets with no elements, and with no words at all.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testEmpty() {
+        assertEquals(0, IndexSet.numWords(0));
+        assertEquals(Set.of(), new IndexSet(new long[0]));
+        assertEquals(Set.of(), new IndexSet(new long[3]));
+        assertFalse(new IndexSet(new long[0]).iterator().hasNext());
+    }
+
+    /**
+     * Tests that setBit() adds an element, and that negative elements are rejected.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testSetBit() {
+        long[] words = new long[2];
+        IndexSet.setBit(words, 70);
+        IndexSet.setBit(words, 3);
+        assertEquals(Set.of(3, 70), new IndexSet(words));
+        assertThrows(IllegalArgumentException.class,
+                () -> IndexSet.toWords(List.of(1, -1), 1));
+    }
+
+    /**
+     * Tests that an IndexSet can't be modified through the Set API.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testImmutable() {
+        IndexSet set = new IndexSet(IndexSet.toWords(List.of(1, 2), 1));
+        assertThrows(UnsupportedOperationException.class, () -> set.add(3));
+        assertThrows(UnsupportedOperationException.class, () -> set.remove(1));
+    }
+
+    /**
+     * Tests that IndexSets holding the same elements are equal and hash alike, even when
+     * one has extra trailing words that are all zero, and that they work as map keys.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testEqualsAcrossLengths() {
+        IndexSet shorter = new IndexSet(IndexSet.toWords(List.of(0, 64), 2));
+        IndexSet longer = new IndexSet(IndexSet.toWords(List.of(0, 64), 5));
+        assertEquals(shorter, longer);
+        assertEquals(longer, shorter);
+        assertEquals(shorter.hashCode(), longer.hashCode());
+        assertEquals(Set.of(0, 64).hashCode(), longer.hashCode());
+        assertNotEquals(shorter, new IndexSet(IndexSet.toWords(List.of(0, 65), 2)));
+        assertNotEquals(shorter, new IndexSet(IndexSet.toWords(List.of(0, 64, 200), 5)));
+
+        Map<IndexSet, Integer> map = new HashMap<>();
+        map.put(shorter, 1);
+        assertEquals(1, map.get(longer));
+        assertEquals(0, new IndexSet(new long[2]).hashCode());
+    }
+}
@@ -0,0 +1,104 @@
+package test.rice.test;
+
+import main.rice.test.OutputTail;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the OutputTail class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OutputTailTest {
+
+    /**
+     * Tests that the last line is kept, whether or not it is terminated.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testLastLine() {
+        assertEquals("c", drain("a\nb\nc\n", 16).getLastLine());
+        assertEquals("c", drain("a\r\nb\r\nc", 16).getLastLine());
+        assertEquals("", drain("a\n\n", 16).getLastLine());
+        assertEquals("", drain("", 16).getLastLine());
+    }
+
+    /**
+     * Tests that only a bounded tail of a large output is kept.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testBoundedTail() {
+        String output = "debug\n".repeat(100_000) + "True\n";
+        OutputTail tail = drain(output, 10);
+        assertEquals("True", tail.getLastLine());
+        assertEquals("bug\nTrue\n", tail.getTail().substring(1));
+        assertEquals(10, tail.getTail().length());
+    }
+
+    /**
+     * Tests that a process which prints far more than a pipe can hold is drained while
+     * it runs, rather than blocking forever.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    @Timeout(30)
+    void testDrainsChattyProcess() throws Exception {
+        Process process = new ProcessBuilder(List.of("python", "-c",
+                "print('x' * 1000000)\nprint('done')")).start();
+        OutputTail tail = new OutputTail(process.getInputStream(), 64);
+        Thread drainer = OutputTail.start(tail);
+        assertEquals(0, process.waitFor());
+        drainer.join();
+        assertEquals("done", tail.getLastLine());
+    }
+
+    /**
+     * Tests that lines longer than the maximum line length (given explicitly, or the
+     * default) are cut off, and are recorded as such, while shorter lines are kept whole.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testBoundedLine() {
+        String output = "x".repeat(100_000) + "\nshort\n" + "y".repeat(20);
+        OutputTail tail = new OutputTail(new ByteArrayInputStream(
+                output.getBytes(StandardCharsets.UTF_8)), 16, 10);
+        tail.run();
+        assertEquals("y".repeat(10), tail.getLastLine());
+        assertTrue(tail.isLastLineCutOff());
+
+        String shortLast = "x".repeat(100_000) + "\nshort\n";
+        OutputTail whole = new OutputTail(new ByteArrayInputStream(
+                shortLast.getBytes(StandardCharsets.UTF_8)), 16, 10);
+        whole.run();
+        assertEquals("short", whole.getLastLine());
+        assertFalse(whole.isLastLineCutOff());
+
+        // By default, lines are cut off at DEFAULT_MAX_LINE_LENGTH characters
+        OutputTail byDefault = drain("z".repeat(1_000_000), 0);
+        assertEquals(OutputTail.DEFAULT_MAX_LINE_LENGTH, byDefault.getLastLine().length());
+        assertTrue(byDefault.isLastLineCutOff());
+    }
+
+    /**
+     * Drains the given output synchronously.
+     *
+     * @param output   the output to be drained
+     * @param tailSize the maximum number of characters kept in the tail
+     * @return the OutputTail that drained the output
+     */
+    private static OutputTail drain(String output, int tailSize) {
+        OutputTail tail = new OutputTail(new ByteArrayInputStream(
+                output.getBytes(StandardCharsets.UTF_8)), tailSize);
+        tail.run();
+        return tail;
+    }
+}
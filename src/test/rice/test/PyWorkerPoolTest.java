@@ -0,0 +1,217 @@
+package test.rice.test;
+
+import main.rice.test.PyWorker;
+import main.rice.test.PyWorkerPool;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the PyWorker and PyWorkerPool classes.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PyWorkerPoolTest {
+
+    /**
+     * A Python worker that echoes back the header and payload of each request, and
+     * exits if the payload is "exit".
+     */
+    private static final String ECHO_WORKER = "import sys\n" +
+            "while True:\n" +
+            "    header = sys.stdin.buffer.readline()\n" +
+            "    if not header:\n" +
+            "        break\n" +
+            "    fields = header.decode().rstrip('\\n').split('\\t')\n" +
+            "    payload = sys.stdin.buffer.read(int(fields[-1])).decode()\n" +
+            "    if payload == 'exit':\n" +
+            "        sys.exit(1)\n" +
+            "    print('|'.join(fields[:-1]) + ':' + payload, flush=True)\n";
+
+    /**
+     * The command used to start an echo worker.
+     */
+    private static List<String> command;
+
+    /**
+     * Writes the echo worker to a temporary file.
+     */
+    @BeforeAll
+    static void setUp() throws IOException {
+        File script = File.createTempFile("echo_worker", ".py");
+        script.deleteOnExit();
+        FileWriter writer = new FileWriter(script);
+        writer.write(ECHO_WORKER);
+        writer.close();
+        command = List.of("python", script.getAbsolutePath());
+    }
+
+    /**
+     * Tests that a single worker can answer multiple requests, including ones with
+     * non-ASCII payloads.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testWorkerMultipleRequests() throws IOException {
+        PyWorker worker = new PyWorker(command);
+        try {
+            assertEquals("a|b:[1, 2]", worker.request(List.of("a", "b"), "[1, 2]"));
+            assertEquals("c:'\u00e9'", worker.request(List.of("c"), "'\u00e9'"));
+        } finally {
+            worker.close();
+        }
+    }
+
+    /**
+     * Tests that a request to a worker that dies returns null.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testWorkerDies() throws IOException {
+        PyWorker worker = new PyWorker(command);
+        try {
+            assertNull(worker.request(List.of("a"), "exit"));
+            assertNull(worker.request(List.of("a"), "again"));
+        } finally {
+            worker.close();
+        }
+    }
+
+    /**
+     * Tests that released workers are reused by the pool.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testPoolReusesWorkers() throws IOException, InterruptedException {
+        try (PyWorkerPool pool = new PyWorkerPool(command, 1)) {
+            PyWorker first = pool.acquire();
+            pool.release(first);
+            PyWorker second = pool.acquire();
+            assertSame(first, second);
+            pool.release(second);
+        }
+    }
+
+    /**
+     * Tests that the pool replaces workers that have died.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testPoolReplacesDeadWorkers() throws IOException, InterruptedException {
+        try (PyWorkerPool pool = new PyWorkerPool(command, 1)) {
+            PyWorker first = pool.acquire();
+            assertNull(first.request(List.of("a"), "exit"));
+            pool.release(first);
+
+            PyWorker second = pool.acquire();
+            assertNotSame(first, second);
+            assertEquals("a:ok", second.request(List.of("a"), "ok"));
+            pool.release(second);
+        }
+    }
+
+    /**
+     * Tests that a worker which answers within the time limit is never killed, however
+     * many times it is waited on, and that one which doesn't answer is killed and
+     * recorded as having timed out.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testWorkerReceiveTimeout() throws IOException {
+        PyWorker worker = new PyWorker(command);
+        try {
+            for (int i = 0; i < 200; i++) {
+                worker.send(List.of("a"), String.valueOf(i));
+                assertEquals("a:" + i, worker.receive(1_000));
+            }
+            assertFalse(worker.hasTimedOut());
+            assertTrue(worker.isAlive());
+
+            // Nothing was sent, so no response is coming
+            assertNull(worker.receive(100));
+            assertTrue(worker.hasTimedOut());
+            assertFalse(worker.isAlive());
+        } finally {
+            worker.close();
+        }
+    }
+
+    /**
+     * Tests that no worker can be acquired from a closed pool, including by a caller
+     * that was already waiting for one when the pool was closed, and that a worker still
+     * in use is shut down along with the pool.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(6)
+    void testPoolClosed() throws Exception {
+        PyWorkerPool pool = new PyWorkerPool(command, 1);
+        PyWorker worker = pool.acquire();
+        CompletableFuture<PyWorker> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire();
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        pool.close();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> waiting.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertThrows(IllegalStateException.class, pool::acquire);
+
+        // The worker that was in use was shut down along with the pool
+        assertNull(worker.request(List.of("a"), "ok"));
+        pool.release(worker);
+    }
+
+    /**
+     * Tests that a retired worker is shut down rather than reused, and that a fresh
+     * worker is ready in its place without going over the size of the pool.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(7)
+    void testPoolRetiresWorkers() throws IOException, InterruptedException {
+        try (PyWorkerPool pool = new PyWorkerPool(command, 1)) {
+            PyWorker first = pool.acquire();
+            pool.retire(first);
+            assertNull(first.request(List.of("a"), "ok"));
+
+            PyWorker second = pool.acquire();
+            assertNotSame(first, second);
+            assertEquals("a:ok", second.request(List.of("a"), "ok"));
+
+            // The pool is full, so nothing else can be acquired until second is returned
+            CompletableFuture<PyWorker> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.acquire();
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThrows(TimeoutException.class,
+                    () -> waiting.get(200, TimeUnit.MILLISECONDS));
+            pool.retire(second);
+            PyWorker third = waiting.get(10, TimeUnit.SECONDS);
+            assertNotSame(second, third);
+            pool.release(third);
+        } catch (ExecutionException | TimeoutException e) {
+            fail(e);
+        }
+    }
+}
@@ -347,6 +347,22 @@ class TestCaseTest {
         assertNotEquals(oneArgSimple.hashCode(), multipleArgsSimple.hashCode());
     }
 
+    /**
+     * Tests that the hash code and string representation are cached (the same object
+     * is returned each time), and that the arguments can't be modified.
+     */
+    @Test
+    @Tag("0.2")
+    @Order(26)
+    void testCachedHashAndRepr() {
+        assertEquals(multipleArgsNested2.hashCode(), multipleArgsNested.hashCode());
+        assertEquals(multipleArgsNested.hashCode(), multipleArgsNested.hashCode());
+        assertSame(multipleArgsNested.toString(), multipleArgsNested.toString());
+        assertEquals(multipleArgsNested2.toString(), multipleArgsNested.toString());
+        assertThrows(UnsupportedOperationException.class,
+                () -> multipleArgsNested.getArgs().add(new PyIntObj(0)));
+    }
+
     /**
      * Set up oneArgSimple, oneArgSimple2, and oneArgSimpleVal for use in the test cases.
      */
@@ -3,6 +3,7 @@ package test.rice.test;
 import main.rice.obj.PyBoolObj;
 import main.rice.obj.PyIntObj;
 import main.rice.obj.PyStringObj;
+import main.rice.test.IndexSet;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 import org.junit.jupiter.api.*;
@@ -11,6 +12,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * Test cases for the TestResults class.
@@ -175,4 +177,30 @@ class TestResultsTest {
     void testGetCaseToFilesNonEmpty() {
         assertEquals(new ArrayList<>(someFilesFail), someFail.getCaseToFiles());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that results built from rows of bits match results built from sets.
+     */
+    @Test
+    @Tag("0.1")
+    @Order(10)
+    void testBitRows() {
+        int numWords = IndexSet.numWords(100);
+        long[][] caseToFiles = new long[someFilesFail.size()][];
+        for (int i = 0; i < caseToFiles.length; i++) {
+            caseToFiles[i] = IndexSet.toWords(someFilesFail.get(i), numWords);
+        }
+        long[] wrongWords = IndexSet.toWords(wrongSet, numWords);
+        List<Set<Integer>> noTimeouts = new ArrayList<>();
+        for (int i = 0; i < caseToFiles.length; i++) {
+            noTimeouts.add(Set.of());
+        }
+
+        TestResults fromBits = new TestResults(testCases, caseToFiles, wrongWords,
+                noTimeouts);
+        assertEquals(someFail.getCaseToFiles(), fromBits.getCaseToFiles());
+        assertEquals(someFail.getWrongSet(), fromBits.getWrongSet());
+        assertEquals(numWords, fromBits.getNumWords());
+        assertSame(wrongWords, fromBits.getWrongWords());
+    }
+}
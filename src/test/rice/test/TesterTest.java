@@ -5,11 +5,15 @@ import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 import main.rice.test.Tester;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -910,6 +914,363 @@ class TesterTest {
                 f3resultStr, Set.of(0, 1, 2), expected, 1);
     }
 
+    /**
+     * Tests running multiple tests on an implementation that kills its own interpreter
+     * partway through, followed by another implementation; the remaining tests should
+     * still be run on both. Checks caseToFiles.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(46)
+    void testRunTestsFileExits() {
+        runTestsHelper("func0", f0Tests, "f0multipleExit",
+                "results = [0, 1, 2, 3, 4]", Set.of(0, 1), List.of(Set.of(), Set.of(),
+                        Set.of(0), Set.of(), Set.of(1)), 1);
+    }
+
+    /**
+     * Tests that testing multiple implementations in parallel gives exactly the same
+     * results as testing them one at a time.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(47)
+    void testRunTestsParallelMatchesSequential() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            Tester sequential = new Tester("func0", null, implDirPath, f0Tests);
+            sequential.setParallelism(1);
+            TestResults expected = sequential.runTests();
+
+            Tester parallel = new Tester("func0", null, implDirPath, f0Tests);
+            parallel.setParallelism(4);
+            TestResults actual = parallel.runTests();
+
+            assertEquals(expected.getCaseToFiles(), actual.getCaseToFiles());
+            assertEquals(expected.getWrongSet(), actual.getWrongSet());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0multipleMixedDeterministic");
+        }
+    }
+
+    /**
+     * Tests that computing the expected results while testing the implementations gives
+     * exactly the same results (and expected.py) as doing one after the other, including
+     * for implementations that keep state in their globals (which must not carry over
+     * between test cases, however they are batched).
+     */
+    @Test
+    @Tag("1.0")
+    @Order(48)
+    void testRunTestsPipelinedMatchesTwoPhase() {
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func3sol.py";
+        for (String implDir : List.of("f3multipleMixed", "f3multipleStateful")) {
+            String implDirPath = userDir + "/src/test/rice/test/pyfiles/" + implDir;
+            try {
+                writeSolContents(3);
+                Tester twoPhase = new Tester("func3", solPath, implDirPath, f3Tests);
+                twoPhase.computeExpectedResults();
+                TestResults expected = twoPhase.runTests();
+                String expectedContents = Files.readString(Paths.get(implDirPath + "/expected.py"));
+                deletedExpected(implDir);
+
+                Tester pipelined = new Tester("func3", solPath, implDirPath, f3Tests);
+                pipelined.setParallelism(3);
+                TestResults actual = pipelined.runTestsPipelined();
+
+                assertEquals(expected.getCaseToFiles(), actual.getCaseToFiles());
+                assertEquals(expected.getWrongSet(), actual.getWrongSet());
+                assertEquals(expectedContents,
+                        Files.readString(Paths.get(implDirPath + "/expected.py")));
+
+                // Of the stateful implementations, only the last is actually wrong
+                if (implDir.equals("f3multipleStateful")) {
+                    assertEquals(Set.of(2), actual.getWrongSet());
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                fail();
+            } finally {
+                deletedExpected(implDir);
+            }
+        }
+    }
+
+    /**
+     * Tests running multiple tests on implementations that never return on some inputs,
+     * with a wall-clock limit on each test; the remaining tests should still be run.
+     * Checks both caseToFiles and caseToTimeouts.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(49)
+    void testRunTestsTestTimeout() {
+        List<Set<Integer>> expected = List.of(Set.of(), Set.of(0), Set.of(), Set.of(1),
+                Set.of());
+        runTimeoutHelper(500, 0, 0, expected, expected);
+    }
+
+    /**
+     * Tests running multiple tests on implementations that never return on some inputs,
+     * with a CPU limit on each test. The busy implementation is caught by the CPU limit,
+     * and the sleeping one by the wall-clock limit.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(50)
+    void testRunTestsCpuTimeout() {
+        List<Set<Integer>> expected = List.of(Set.of(), Set.of(0), Set.of(), Set.of(1),
+                Set.of());
+        runTimeoutHelper(2000, 200, 0, expected, expected);
+    }
+
+    /**
+     * Tests running multiple tests on implementations that never return on some inputs,
+     * with a limit on the total time spent on each implementation; every test that an
+     * implementation had not finished by then should be recorded as having timed out.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(51)
+    void testRunTestsImplTimeout() {
+        List<Set<Integer>> expected = List.of(Set.of(), Set.of(0), Set.of(0),
+                Set.of(0, 1), Set.of(0, 1));
+        runTimeoutHelper(0, 0, 500, expected, expected);
+    }
+
+    /**
+     * Tests that cached results are used in place of testing files that have not
+     * changed, and that changing the test cases or the wrapper invalidates them.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(52)
+    void testRunTestsCache(@TempDir Path cacheDir) {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            Tester uncached = new Tester("func0", null, implDirPath, f0Tests);
+            TestResults expected = uncached.runTests();
+
+            // The first run fills the cache, with one entry per file
+            Tester first = new Tester("func0", null, implDirPath, f0Tests);
+            first.setCacheDir(cacheDir.toString());
+            assertEquals(expected.getCaseToFiles(), first.runTests().getCaseToFiles());
+            File[] entries = cacheDir.toFile().listFiles();
+            assertNotNull(entries);
+            assertEquals(6, entries.length);
+
+            // Later runs use the cached results rather than testing the files again
+            for (File entry : entries) {
+                Files.write(entry.toPath(), Collections.nCopies(f0Tests.size(), "True"));
+            }
+            Tester second = new Tester("func0", null, implDirPath, f0Tests);
+            second.setCacheDir(cacheDir.toString());
+            TestResults actual = second.runTests();
+            for (Set<Integer> files : actual.getCaseToFiles()) {
+                assertEquals(Set.of(), files);
+            }
+
+            // A different wrapper (here, because of a CPU limit) gives different keys
+            Tester limited = new Tester("func0", null, implDirPath, f0Tests);
+            limited.setCacheDir(cacheDir.toString());
+            limited.setTestCpuTimeout(5_000);
+            assertEquals(expected.getCaseToFiles(), limited.runTests().getCaseToFiles());
+
+            // Different test cases give different keys
+            Tester third = new Tester("func0", null, implDirPath, f0Tests.subList(0, 4));
+            third.setCacheDir(cacheDir.toString());
+            assertEquals(expected.getCaseToFiles().subList(0, 4),
+                    third.runTests().getCaseToFiles());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0multipleMixedDeterministic");
+        }
+    }
+
+    /**
+     * Tests that cached expected results are used in place of running the solution on
+     * test cases it has already seen, and that new test cases are still run.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(53)
+    void testComputeExpectedResultsCache(@TempDir Path cacheDir) {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py";
+        try {
+            writeSolContents(0);
+
+            // The first run fills the cache, with one entry per test case
+            Tester first = new Tester("func0", solPath, implDirPath, f0Tests);
+            first.setCacheDir(cacheDir.toString());
+            assertEquals(List.of("0", "1", "2", "3", "4"), first.computeExpectedResults());
+            File[] entries = cacheDir.toFile().listFiles();
+            assertNotNull(entries);
+            assertEquals(5, entries.length);
+
+            // Later runs only run the solution on test cases that are not cached
+            for (File entry : entries) {
+                Files.write(entry.toPath(), List.of("-1"));
+            }
+            List<TestCase> moreTests = new ArrayList<>(f0Tests);
+            moreTests.add(new TestCase(Collections.singletonList(new PyIntObj(5))));
+            Tester second = new Tester("func0", solPath, implDirPath, moreTests);
+            second.setCacheDir(cacheDir.toString());
+            assertEquals(List.of("-1", "-1", "-1", "-1", "-1", "5"),
+                    second.computeExpectedResults());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0multipleMixedDeterministic");
+        }
+    }
+
+    /**
+     * Tests that the runtime of each test case on the solution is recorded, and that
+     * asking for runtimes before computing the expected results fails.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(54)
+    void testExpectedRuntimes() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py";
+        try {
+            writeSolContents(0);
+            Tester tester = new Tester("func0", solPath, implDirPath, f0Tests);
+            assertThrows(IllegalStateException.class, tester::getExpectedRuntimes);
+
+            assertEquals(List.of("0", "1", "2", "3", "4"), tester.computeExpectedResults());
+            long[] runtimes = tester.getExpectedRuntimes();
+            assertEquals(f0Tests.size(), runtimes.length);
+            for (long runtime : runtimes) {
+                assertTrue(runtime >= 0);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0multipleMixedDeterministic");
+        }
+    }
+
+    /**
+     * Tests that the per-test time limit on buggy implementations does not apply to the
+     * solution, and that computing the expected results fails, rather than producing an
+     * empty result, if the solution runs out of its own time limit or crashes.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(55)
+    void testComputeExpectedResultsSolutionLimits() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+        String solDirPath = userDir + "/src/test/rice/test/pyfiles/sols";
+        try {
+            // The solution takes a second on one test case, which is longer than the
+            // limit on the buggy implementations
+            Tester slow = new Tester("func0", solDirPath + "/func0slowsol.py", implDirPath,
+                    f0Tests);
+            slow.setTestTimeout(200);
+            assertEquals(List.of("0", "1", "2", "3", "4"), slow.computeExpectedResults());
+
+            slow.setSolutionTimeout(200);
+            assertThrows(IOException.class, slow::computeExpectedResults);
+
+            Tester crash = new Tester("func0", solDirPath + "/func0crashsol.py",
+                    implDirPath, f0Tests);
+            assertThrows(IOException.class, crash::computeExpectedResults);
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected("f0multipleMixedDeterministic");
+        }
+    }
+
+    /**
+     * Tests that global interpreter state changed by one implementation (here, replacing
+     * the builtin min()) doesn't leak into the results of another implementation, even
+     * when both are tested one after the other with a single worker. Both
+     * implementations are correct.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(56)
+    void testRunTestsIsolatesImplementations() {
+        String implDir = "f3multipleSharedState";
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/" + implDir;
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func3sol.py";
+        try {
+            writeSolContents(3);
+            Tester tester = new Tester("func3", solPath, implDirPath, f3Tests);
+            tester.setParallelism(1);
+            tester.computeExpectedResults();
+            assertEquals(Set.of(), tester.runTests().getWrongSet());
+
+            deletedExpected(implDir);
+            Tester pipelined = new Tester("func3", solPath, implDirPath, f3Tests);
+            pipelined.setParallelism(1);
+            assertEquals(Set.of(), pipelined.runTestsPipelined().getWrongSet());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Tests that interrupting runTests() stops it promptly even when there is no limit on
+     * a single test case, and one of the implementations never returns.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(57)
+    void testRunTestsInterruptedWithoutTimeout() throws Exception {
+        String implDir = "f0multipleTimeout";
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, f0Tests);
+        tester.setTestTimeout(0);
+        try {
+            FileWriter writer = new FileWriter(userDir +
+                    "/src/test/rice/test/pyfiles/" + implDir + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+            Thread runner = new Thread(() -> {
+                try {
+                    tester.runTests();
+                    outcome.complete(null);
+                } catch (Exception e) {
+                    outcome.complete(e);
+                }
+            });
+            runner.setDaemon(true);
+            runner.start();
+            Thread.sleep(2_000);
+            runner.interrupt();
+            assertInstanceOf(InterruptedException.class,
+                    outcome.get(30, TimeUnit.SECONDS));
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
     /**
      * Sets up the test cases for function f0, which takes one simple argument.
      */
@@ -1078,6 +1439,43 @@ class TesterTest {
         }
     }
 
+    /**
+     * Helper function for testing runTests() with time limits, on the implementations in
+     * f0multipleTimeout.
+     *
+     * @param testTimeout    the wall-clock limit on each test, in milliseconds
+     * @param testCpuTimeout the CPU limit on each test, in milliseconds
+     * @param implTimeout    the wall-clock limit on each implementation, in milliseconds
+     * @param expFiles       the expected value of caseToFiles
+     * @param expTimeouts    the expected value of caseToTimeouts
+     */
+    private static void runTimeoutHelper(long testTimeout, long testCpuTimeout,
+                                         long implTimeout, List<Set<Integer>> expFiles,
+                                         List<Set<Integer>> expTimeouts) {
+        String implDir = "f0multipleTimeout";
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, f0Tests);
+        tester.setTestTimeout(testTimeout);
+        tester.setTestCpuTimeout(testCpuTimeout);
+        tester.setImplTimeout(implTimeout);
+        try {
+            FileWriter writer = new FileWriter(userDir +
+                    "/src/test/rice/test/pyfiles/" + implDir + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            TestResults results = tester.runTests();
+            assertEquals(expFiles, results.getCaseToFiles());
+            assertEquals(expTimeouts, results.getCaseToTimeouts());
+            assertEquals(Set.of(0, 1), results.getWrongSet());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
     /**
      * Deletes the file containing the expected results.
      *
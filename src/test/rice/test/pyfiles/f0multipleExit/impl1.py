@@ -0,0 +1,4 @@
+def func0(intval):
+    if intval == 4:
+        return intval + 1
+    return intval
@@ -0,0 +1,6 @@
+import time
+
+def func0(intval):
+    if intval == 3:
+        time.sleep(3600)
+    return intval
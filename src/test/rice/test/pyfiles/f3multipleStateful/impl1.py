@@ -0,0 +1,14 @@
+cache = {}
+
+def func3(set_val, list_val, tup_val):
+    key = len(list_val)
+    if key not in cache:
+        if (set_val):
+            cache[key] = tuple([str(min(set_val)), str(min(set_val) + 1)])
+        elif (len(list_val) > len(tup_val)):
+            cache[key] = tuple([str(list_val[0]), str(list_val[0] + 1)])
+        elif (tup_val):
+            cache[key] = tuple([str(tup_val[0]), str(tup_val[0] + 1)])
+        else:
+            cache[key] = tuple(['0', '1'])
+    return cache[key]
@@ -0,0 +1,16 @@
+def func0(intval):
+    if intval == 2:
+        raise ValueError(intval)
+    return intval
+
+import sys
+import time
+
+if __name__ == "__main__":
+    args = sys.argv[1:]
+    new_args = [eval(arg) for arg in args]
+    start = time.perf_counter_ns()
+    result = func0(*new_args)
+    elapsed = time.perf_counter_ns() - start
+    print (repr(result))
+    sys.stderr.write("\n" + str(elapsed) + "\n")
\ No newline at end of file